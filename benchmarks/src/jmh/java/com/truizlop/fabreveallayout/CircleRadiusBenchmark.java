@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares computing the circle radius on every frame, as CircularExpandingView used to do
+ * in onDraw, with scaling the radius cached in onSizeChanged.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CircleRadiusBenchmark {
+
+    private int width = 1080;
+    private int height = 720;
+    private float maxRadius;
+    private float expandFraction = 0;
+
+    @Setup
+    public void setUp() {
+        maxRadius = CircleGeometry.maxRadius(width, height);
+    }
+
+    private float nextExpandFraction() {
+        expandFraction += 1f / 18;
+        if (expandFraction > 1) {
+            expandFraction = 0.1f;
+        }
+        return expandFraction;
+    }
+
+    @Benchmark
+    public float radiusPerFrame() {
+        return CircleGeometry.maxRadius(width, height) * nextExpandFraction();
+    }
+
+    @Benchmark
+    public float cachedRadius() {
+        return maxRadius * nextExpandFraction();
+    }
+}
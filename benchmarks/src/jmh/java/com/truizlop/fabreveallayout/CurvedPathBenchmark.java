@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CurvedPathBenchmark {
+
+    private static final float FROM_X = 960, FROM_Y = 56, TO_X = 512, TO_Y = 384;
+
+    private final CurvedPathEvaluator allocatingEvaluator = new CurvedPathEvaluator();
+    private final CurvedPathEvaluator reusingEvaluator = new CurvedPathEvaluator(new Point(0, 0));
+    private final CurvedPathTable table = new CurvedPathTable();
+    private final CurvedPathTable arcLengthTable = new CurvedPathTable();
+    private final Point sample = new Point(0, 0);
+    private Point start;
+    private Point end;
+    private float fraction = 0;
+
+    @Setup
+    public void setUp() {
+        Object[] points = new CurvedAnimator(FROM_X, FROM_Y, TO_X, TO_Y).getPoints();
+        start = (Point) points[0];
+        end = (Point) points[1];
+        table.update(FROM_X, FROM_Y, TO_X, TO_Y);
+        arcLengthTable.setArcLengthParameterized(true);
+        arcLengthTable.update(FROM_X, FROM_Y, TO_X, TO_Y);
+    }
+
+    private float nextFraction() {
+        fraction += 1f / 48;
+        if (fraction > 1) {
+            fraction = 0;
+        }
+        return fraction;
+    }
+
+    @Benchmark
+    public Point evaluateAllocating() {
+        return allocatingEvaluator.evaluate(nextFraction(), start, end);
+    }
+
+    @Benchmark
+    public Point evaluateReusing() {
+        return reusingEvaluator.evaluate(nextFraction(), start, end);
+    }
+
+    @Benchmark
+    public Point sampleTable() {
+        return table.sample(nextFraction(), sample);
+    }
+
+    @Benchmark
+    public Point sampleArcLengthTable() {
+        return arcLengthTable.sample(nextFraction(), sample);
+    }
+
+    @Benchmark
+    public CurvedAnimator createCurvedAnimator() {
+        return new CurvedAnimator(FROM_X, FROM_Y, TO_X, TO_Y);
+    }
+
+    @Benchmark
+    public boolean buildTable() {
+        return table.update(FROM_X, FROM_Y, TO_X + nextFraction(), TO_Y);
+    }
+
+    @Benchmark
+    public boolean buildArcLengthTable() {
+        return arcLengthTable.update(FROM_X, FROM_Y, TO_X + nextFraction(), TO_Y);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout.design;
+
+import android.content.res.ColorStateList;
+import android.support.design.widget.FloatingActionButton;
+import android.view.View;
+
+import com.truizlop.fabreveallayout.DefaultRevealTrigger;
+
+/**
+ * Takes the {@link FloatingActionButton} child as the trigger and reads its tint on every
+ * API level, including those before API 21 where the tint is not part of {@link View}.
+ *
+ * Set it with {@code app:fabReveal_trigger="com.truizlop.fabreveallayout.design.FloatingActionButtonTrigger"}.
+ */
+public class FloatingActionButtonTrigger extends DefaultRevealTrigger {
+
+    @Override
+    public boolean isTrigger(View child) {
+        return child instanceof FloatingActionButton;
+    }
+
+    @Override
+    public int getColor(View trigger) {
+        ColorStateList tint = ((FloatingActionButton) trigger).getBackgroundTintList();
+        return tint != null ? tint.getDefaultColor() : super.getColor(trigger);
+    }
+}
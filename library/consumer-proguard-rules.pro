@@ -0,0 +1,22 @@
+# ProGuard rules applied to apps that depend on FABRevealLayout.
+#
+# The library moves the FAB by calling setFabPosition directly, so no member
+# needs to be kept for the library itself. setFabPosition is kept for apps that
+# animate the "fabPosition" property by name.
+
+-keep public class com.truizlop.fabreveallayout.FABRevealLayout {
+    public <init>(android.content.Context);
+    public <init>(android.content.Context, android.util.AttributeSet);
+    public <init>(android.content.Context, android.util.AttributeSet, int);
+    public void setFabPosition(com.truizlop.fabreveallayout.Point);
+}
+
+# Triggers named by the "fabReveal_trigger" attribute are instantiated by reflection.
+-keep public class * implements com.truizlop.fabreveallayout.RevealTrigger {
+    public <init>();
+}
+
+# DefaultRevealTrigger reads the tint of a FloatingActionButton by reflection before API 21.
+-keepclassmembers class android.support.design.widget.FloatingActionButton {
+    public android.content.res.ColorStateList getBackgroundTintList();
+}
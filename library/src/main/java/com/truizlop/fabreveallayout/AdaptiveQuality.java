@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+/**
+ * Picks the {@link FABRevealLayout.QualityTier} of the next transition from the device, the
+ * system animation settings and the frame timing of the previous transitions. A transition
+ * that misses too many frames lowers the tier by one step, and a run of transitions that do
+ * not raises it again by one step, so a passing spike of load does not lower it for good.
+ */
+final class AdaptiveQuality {
+
+    /** Share of late frames above which a transition is considered janky. */
+    static final float JANK_LATE_FRAME_RATIO = 0.25f;
+
+    /** Transitions in a row without jank after which a lowered tier is raised by one step. */
+    static final int RECOVERY_TRANSITIONS = 8;
+
+    private static final float[] MOVE_DURATION_SCALES = {1, 0.75f, 0.5f};
+    private static final float[] CIRCLE_DURATION_SCALES = {1, 0.75f, 0};
+
+    private int jankLevel = 0;
+    private int smoothTransitions = 0;
+
+    /**
+     * @param lowRamDevice  whether the device reports itself as a low RAM device
+     * @param durationScale system animator duration scale, 0 when animations are off
+     */
+    FABRevealLayout.QualityTier choose(boolean lowRamDevice, float durationScale) {
+        int level = jankLevel;
+        if(durationScale == 0){
+            level = 2;
+        }else if(lowRamDevice || durationScale < 1){
+            level = Math.max(level, 1);
+        }
+        return FABRevealLayout.QualityTier.values()[level];
+    }
+
+    void onTransitionMetrics(RevealMetrics metrics) {
+        int frames = metrics.getFrameCount();
+        if(frames == 0){
+            return;
+        }
+        if(metrics.getLateFrames() > frames * JANK_LATE_FRAME_RATIO){
+            jankLevel = Math.min(jankLevel + 1, FABRevealLayout.QualityTier.values().length - 1);
+            smoothTransitions = 0;
+        }else if(jankLevel > 0 && ++smoothTransitions == RECOVERY_TRANSITIONS){
+            jankLevel--;
+            smoothTransitions = 0;
+        }
+    }
+
+    static long scaleMoveDuration(long duration, FABRevealLayout.QualityTier tier) {
+        return (long) (duration * MOVE_DURATION_SCALES[tier.ordinal()]);
+    }
+
+    static long scaleCircleDuration(long duration, FABRevealLayout.QualityTier tier) {
+        return (long) (duration * CIRCLE_DURATION_SCALES[tier.ordinal()]);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Inflates a layout on a background thread and hands the view back on the main thread,
+ * unless it has been cancelled in the meantime. Views that cannot be created off the main
+ * thread make the inflation fail, in which case the callback receives {@code null} and the
+ * caller is expected to inflate the layout on the main thread instead.
+ */
+final class BackgroundInflater implements Runnable {
+
+    interface Callback {
+        void onInflated(View view);
+    }
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private final LayoutInflater inflater;
+    private final int layoutResId;
+    private final ViewGroup root;
+    private final Callback callback;
+    private volatile boolean cancelled = false;
+
+    BackgroundInflater(int layoutResId, ViewGroup root, Callback callback) {
+        this.inflater = LayoutInflater.from(root.getContext()).cloneInContext(root.getContext());
+        this.layoutResId = layoutResId;
+        this.root = root;
+        this.callback = callback;
+    }
+
+    void start() {
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(this);
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public void run() {
+        View view;
+        try {
+            view = inflater.inflate(layoutResId, root, false);
+        } catch (RuntimeException e) {
+            view = null;
+        }
+
+        final View inflatedView = view;
+        MAIN_HANDLER.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!cancelled) {
+                    callback.onInflated(inflatedView);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.LinearInterpolator;
+
+/**
+ * Scales the direct children of a view in, one after another, from a single animator that
+ * updates all of them in one pass per frame.
+ *
+ * The stagger starts once the view has appeared, that is after the reveal has finished, so
+ * it runs on its own animator rather than on the timeline of the reveal, and is not driven
+ * by a spring or a frame coordinator. Only the preparation, hiding the children, happens
+ * while the reveal runs.
+ */
+final class ChildStagger {
+
+    private final StaggerSchedule schedule;
+    private final ValueAnimator clock = ValueAnimator.ofFloat(0, 1);
+    private ViewGroup group = null;
+
+    ChildStagger(StaggerSchedule schedule) {
+        this.schedule = schedule;
+        clock.setInterpolator(new LinearInterpolator());
+        clock.addUpdateListener(updateListener);
+        clock.addListener(endListener);
+    }
+
+    /**
+     * Hides the children of the view until the stagger starts, so they do not show at full
+     * size while the view is being revealed.
+     */
+    void prepare(View view) {
+        if(view == group){
+            return;
+        }
+        cancel();
+        if(view instanceof ViewGroup){
+            group = (ViewGroup) view;
+            setScale(0);
+        }
+    }
+
+    void start(View view) {
+        prepare(view);
+        if(group == null){
+            return;
+        }
+        clock.setDuration(schedule.getTotalDuration(countChildren()));
+        clock.start();
+    }
+
+    /**
+     * Whether the children of a view are hidden or being scaled in.
+     */
+    boolean isActive() {
+        return group != null;
+    }
+
+    /**
+     * Shows the children at full size right away.
+     */
+    void cancel() {
+        clock.cancel();
+        finish();
+    }
+
+    private void finish() {
+        if(group != null){
+            setScale(1);
+            group = null;
+        }
+    }
+
+    private int countChildren() {
+        int count = 0;
+        for(int i = 0; i < group.getChildCount(); i++){
+            if(group.getChildAt(i).getVisibility() != View.GONE){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Only the children that are scaling in this frame are touched, the ones still waiting
+     * for their turn and the ones already shown keep their scale.
+     */
+    private void apply(long playTime) {
+        int index = 0;
+        for(int i = 0; i < group.getChildCount(); i++){
+            View child = group.getChildAt(i);
+            if(child.getVisibility() == View.GONE){
+                continue;
+            }
+            float scale = schedule.getFraction(index, playTime);
+            if(child.getScaleX() != scale){
+                child.setScaleX(scale);
+                child.setScaleY(scale);
+            }
+            index++;
+        }
+    }
+
+    private void setScale(float scale) {
+        for(int i = 0; i < group.getChildCount(); i++){
+            View child = group.getChildAt(i);
+            child.setScaleX(scale);
+            child.setScaleY(scale);
+        }
+    }
+
+    /**
+     * The play time is taken from the fraction, which follows the time of the frame being
+     * drawn. Before API 24 {@link ValueAnimator#getCurrentPlayTime()} reads the clock instead,
+     * so it runs ahead of the frame by however long the frame took to start.
+     */
+    private ValueAnimator.AnimatorUpdateListener updateListener = new ValueAnimator.AnimatorUpdateListener() {
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            if(group != null){
+                apply((long) (animation.getAnimatedFraction() * animation.getDuration()));
+            }
+        }
+    };
+
+    private Animator.AnimatorListener endListener = new AnimatorListenerAdapter() {
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            super.onAnimationEnd(animation);
+            finish();
+        }
+    };
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+final class CircleGeometry {
+
+    private CircleGeometry() {
+    }
+
+    /**
+     * Radius of the smallest circle centered in a view of the given size that covers it.
+     */
+    static float maxRadius(int width, int height) {
+        int cx = width/2;
+        int cy = height/2;
+        return (float) Math.sqrt(cx*cx + cy*cy);
+    }
+
+    /**
+     * Radius of the smallest circle centered at the given point that covers a view of the
+     * given size.
+     */
+    static float maxRadius(float cx, float cy, int width, int height) {
+        float dx = Math.max(cx, width - cx);
+        float dy = Math.max(cy, height - cy);
+        return (float) Math.sqrt(dx*dx + dy*dy);
+    }
+}
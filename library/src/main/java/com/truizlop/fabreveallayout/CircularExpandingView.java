@@ -16,22 +16,42 @@
 package com.truizlop.fabreveallayout;
 
 import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
 import android.animation.ValueAnimator;
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.os.Build;
 import android.util.AttributeSet;
 import android.view.View;
+import android.view.ViewAnimationUtils;
 import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.Interpolator;
 
 public class CircularExpandingView extends View {
 
+    /**
+     * {@link #NATIVE} uses {@link ViewAnimationUtils#createCircularReveal} so that the circle
+     * is clipped on the RenderThread, {@link #SOFTWARE} draws the circle on every frame and
+     * {@link #AUTO} picks the native engine whenever the device and window support it. The
+     * reveal clip does nothing on windows without hardware acceleration, so there even
+     * {@link #NATIVE} draws the circle.
+     */
+    public enum RenderEngine {
+        AUTO, NATIVE, SOFTWARE
+    }
+
     protected static final int ANIMATION_DURATION = 300;
+    protected static final float MIN_EXPAND_FRACTION = 0.1f;
 
     protected final Interpolator INTERPOLATOR = new AccelerateDecelerateInterpolator();
     protected Paint paint = null;
     protected float expandFraction = 0;
+    protected float maxRadius = 0;
+    protected RenderEngine renderEngine = RenderEngine.AUTO;
+    protected boolean clippedByReveal = false;
+    private float nativeRevealTargetFraction = 0;
 
     public CircularExpandingView(Context context) {
         super(context);
@@ -56,26 +76,46 @@ public class CircularExpandingView extends View {
         paint.setColor(color);
     }
 
+    public void setRenderEngine(RenderEngine renderEngine) {
+        this.renderEngine = renderEngine;
+    }
+
+    public RenderEngine getRenderEngine() {
+        return renderEngine;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        maxRadius = CircleGeometry.maxRadius(w, h);
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
 
-        int cx = canvas.getWidth()/2;
-        int cy = canvas.getHeight()/2;
-        float radius = (float) Math.sqrt(cx*cx + cy*cy) * expandFraction;
-
-        canvas.drawCircle(cx, cy, radius, paint);
+        if(clippedByReveal){
+            if(expandFraction > 0) {
+                canvas.drawPaint(paint);
+            }
+        }else {
+            canvas.drawCircle(getWidth() / 2, getHeight() / 2, maxRadius * expandFraction, paint);
+        }
     }
 
     public Animator expand(){
-        return animateExpandFraction(0.1f, 1);
+        return animateExpandFraction(MIN_EXPAND_FRACTION, 1);
     }
 
     public Animator contract(){
-        return animateExpandFraction(1, 0.1f);
+        return animateExpandFraction(1, MIN_EXPAND_FRACTION);
     }
 
     public Animator animateExpandFraction(float from, float to){
+        if(canUseNativeReveal()){
+            return createNativeReveal(from, to);
+        }
+
         ValueAnimator animator = ValueAnimator.ofFloat(from, to);
         animator.setDuration(ANIMATION_DURATION);
         animator.setInterpolator(INTERPOLATOR);
@@ -84,6 +124,31 @@ public class CircularExpandingView extends View {
         return animator;
     }
 
+    boolean canUseNativeReveal(){
+        if(renderEngine == RenderEngine.SOFTWARE || Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP){
+            return false;
+        }
+        if(getWindowToken() == null || isLayoutRequested() || maxRadius == 0){
+            return false;
+        }
+        return isHardwareAccelerated();
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private Animator createNativeReveal(float from, float to){
+        Animator animator = ViewAnimationUtils.createCircularReveal(this,
+                getWidth() / 2, getHeight() / 2, maxRadius * from, maxRadius * to);
+        animator.setDuration(ANIMATION_DURATION);
+        animator.setInterpolator(INTERPOLATOR);
+
+        clippedByReveal = true;
+        expandFraction = Math.max(from, to);
+        nativeRevealTargetFraction = to;
+        animator.addListener(nativeRevealListener);
+        invalidate();
+        return animator;
+    }
+
     protected ValueAnimator.AnimatorUpdateListener updateListener = new ValueAnimator.AnimatorUpdateListener() {
         @Override
         public void onAnimationUpdate(ValueAnimator animation) {
@@ -91,9 +156,30 @@ public class CircularExpandingView extends View {
         }
     };
 
+    private Animator.AnimatorListener nativeRevealListener = new AnimatorListenerAdapter() {
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            super.onAnimationEnd(animation);
+            expandFraction = nativeRevealTargetFraction;
+        }
+    };
+
     public void setExpandFraction(float expandFraction) {
+        float dirtyRadius = maxRadius * Math.max(this.expandFraction, expandFraction);
         this.expandFraction = expandFraction;
-        invalidate();
+        if(clippedByReveal){
+            clippedByReveal = false;
+            invalidate();
+            return;
+        }
+        invalidateCircle(dirtyRadius);
+    }
+
+    private void invalidateCircle(float radius){
+        int cx = getWidth()/2;
+        int cy = getHeight()/2;
+        int extent = (int) Math.ceil(radius) + 1;
+        invalidate(cx - extent, cy - extent, cx + extent, cy + extent);
     }
 
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+/**
+ * Linear progress of a transition advanced by a {@link RevealFrameCoordinator}. The progress
+ * moves towards its target at a constant speed, so a transition that is turned around goes
+ * back over the same path in the time it has been running.
+ */
+final class CoordinatedTransition {
+
+    interface Listener {
+        void onProgress(float progress);
+
+        void onFinished();
+    }
+
+    private static final float NANOS_PER_MILLI = 1000000f;
+
+    private final Listener listener;
+    private float progress = 0;
+    private float target = 0;
+    private long duration = 0;
+    private long lastFrameTime = 0;
+
+    CoordinatedTransition(Listener listener) {
+        this.listener = listener;
+    }
+
+    void set(float from, float to, long duration) {
+        this.progress = from;
+        this.target = to;
+        this.duration = duration;
+        this.lastFrameTime = 0;
+    }
+
+    void reverse() {
+        target = target == 1 ? 0 : 1;
+    }
+
+    float getProgress() {
+        return progress;
+    }
+
+    /**
+     * Moves the progress by the time elapsed since the previous frame and reports it. The
+     * first frame reports the starting progress.
+     *
+     * @return whether the progress has reached its target
+     */
+    boolean advance(long frameTimeNanos) {
+        if(lastFrameTime != 0){
+            float step = duration > 0 ? (frameTimeNanos - lastFrameTime) / (duration * NANOS_PER_MILLI) : 1;
+            progress = target > progress ? Math.min(progress + step, target) : Math.max(progress - step, target);
+        }
+        lastFrameTime = frameTimeNanos;
+        listener.onProgress(progress);
+        return progress == target;
+    }
+
+    void finish() {
+        listener.onFinished();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+/**
+ * Critically damped spring that moves a value towards a target without overshooting from
+ * rest. It is integrated with a fixed timestep, so the motion does not depend on the frame
+ * rate, and a new target keeps the current velocity instead of starting again from rest.
+ */
+final class CriticalSpring {
+
+    /** Integration step, in seconds. */
+    static final float TIMESTEP = 1 / 240f;
+
+    /** Frames longer than this are treated as this long, so a stall does not make the value jump. */
+    private static final float MAX_FRAME_TIME = 0.1f;
+
+    /** Value of {@code ωt} at which a critically damped spring released from rest is within 0.1% of its target. */
+    private static final float SETTLE_RATIO = 9.23f;
+
+    private static final float POSITION_THRESHOLD = 0.001f;
+    private static final float VELOCITY_THRESHOLD = 0.01f;
+
+    private float position = 0;
+    private float velocity = 0;
+    private float target = 0;
+    private float naturalFrequency = SETTLE_RATIO;
+    private float accumulatedTime = 0;
+
+    /**
+     * Sets the stiffness so that moving from rest to the target settles in about the given
+     * duration. A spring without duration is infinitely stiff and settles on the next frame.
+     */
+    void setSettleDuration(long durationMillis) {
+        naturalFrequency = SETTLE_RATIO * 1000f / durationMillis;
+    }
+
+    void setTarget(float target) {
+        this.target = target;
+    }
+
+    void snapTo(float position) {
+        this.position = position;
+        this.target = position;
+        this.velocity = 0;
+        this.accumulatedTime = 0;
+    }
+
+    float getPosition() {
+        return position;
+    }
+
+    float getVelocity() {
+        return velocity;
+    }
+
+    float getTarget() {
+        return target;
+    }
+
+    /**
+     * Advances the spring by the time elapsed since the previous frame.
+     *
+     * @return whether the spring has settled on its target, in which case it is snapped to it
+     */
+    boolean advance(float seconds) {
+        if (Float.isInfinite(naturalFrequency)) {
+            snapTo(target);
+            return true;
+        }
+        accumulatedTime += Math.min(seconds, MAX_FRAME_TIME);
+        float stiffness = naturalFrequency * naturalFrequency;
+        float damping = 2 * naturalFrequency;
+        while (accumulatedTime >= TIMESTEP) {
+            float acceleration = -stiffness * (position - target) - damping * velocity;
+            velocity += acceleration * TIMESTEP;
+            position += velocity * TIMESTEP;
+            accumulatedTime -= TIMESTEP;
+        }
+
+        if (Math.abs(position - target) < POSITION_THRESHOLD && Math.abs(velocity) < VELOCITY_THRESHOLD) {
+            snapTo(target);
+            return true;
+        }
+        return false;
+    }
+}
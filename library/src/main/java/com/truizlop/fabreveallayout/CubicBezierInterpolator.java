@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.view.animation.Interpolator;
+
+/**
+ * Cubic bezier easing from (0, 0) to (1, 1), like the {@code PathInterpolator} of API 21,
+ * without allocating on each frame.
+ */
+final class CubicBezierInterpolator implements Interpolator {
+
+    private static final int NEWTON_ITERATIONS = 8;
+    private static final float EPSILON = 0.0001f;
+
+    private final float x1;
+    private final float y1;
+    private final float x2;
+    private final float y2;
+
+    /**
+     * The Material "fast out, slow in" curve.
+     */
+    static CubicBezierInterpolator fastOutSlowIn() {
+        return new CubicBezierInterpolator(0.4f, 0, 0.2f, 1);
+    }
+
+    CubicBezierInterpolator(float x1, float y1, float x2, float y2) {
+        this.x1 = x1;
+        this.y1 = y1;
+        this.x2 = x2;
+        this.y2 = y2;
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        if(input <= 0 || input >= 1){
+            return input <= 0 ? 0 : 1;
+        }
+        return bezier(solveT(input), y1, y2);
+    }
+
+    private float solveT(float x) {
+        float t = x;
+        for(int i = 0; i < NEWTON_ITERATIONS; i++){
+            float error = bezier(t, x1, x2) - x;
+            if(Math.abs(error) < EPSILON){
+                return t;
+            }
+            float slope = slope(t, x1, x2);
+            if(slope < EPSILON){
+                break;
+            }
+            t -= error / slope;
+        }
+        float low = 0;
+        float high = 1;
+        t = x;
+        while(high - low > EPSILON){
+            if(bezier(t, x1, x2) < x){
+                low = t;
+            }else{
+                high = t;
+            }
+            t = (low + high) / 2;
+        }
+        return t;
+    }
+
+    private static float bezier(float t, float p1, float p2) {
+        float u = 1 - t;
+        return 3 * u * u * t * p1 + 3 * u * t * t * p2 + t * t * t;
+    }
+
+    private static float slope(float t, float p1, float p2) {
+        float u = 1 - t;
+        return 3 * u * u * p1 + 6 * u * t * (p2 - p1) + 3 * t * t * (1 - p2);
+    }
+}
@@ -22,8 +22,27 @@ import android.animation.TypeEvaluator;
  */
 public class CurvedPathEvaluator implements TypeEvaluator<Point> {
 
+    private final Point reuse;
+
+    public CurvedPathEvaluator() {
+        this(null);
+    }
+
+    /**
+     * When a reuse point is given, {@link #evaluate(float, Point, Point)} writes its result
+     * into it instead of allocating a new {@link Point} on every animation frame.
+     */
+    public CurvedPathEvaluator(Point reuse) {
+        this.reuse = reuse;
+    }
+
     @Override
     public Point evaluate(float t, Point startValue, Point endValue) {
+        Point out = reuse != null ? reuse : new Point(0, 0);
+        return evaluate(t, startValue, endValue, out);
+    }
+
+    public Point evaluate(float t, Point startValue, Point endValue, Point out) {
         float x, y;
 
         float oneMinusT = 1 - t;
@@ -36,6 +55,7 @@ public class CurvedPathEvaluator implements TypeEvaluator<Point> {
                 3 * oneMinusT * t * t * endValue.y +
                 t * t * t * endValue.y;
 
-        return new Point(x,y);
+        out.set(x, y);
+        return out;
     }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+/**
+ * Lookup table holding the curve produced by {@link CurvedAnimator} and
+ * {@link CurvedPathEvaluator}, baked into interleaved x/y samples. Sampling the table is
+ * a linear interpolation between two entries and never allocates.
+ */
+public class CurvedPathTable {
+
+    public static final int DEFAULT_SAMPLES = 64;
+
+    private final int samples;
+    private final float[] points;
+    private final float[] rawPoints;
+    private final float[] lengths;
+    private final CurvedPathEvaluator evaluator;
+    private final Point start = new Point(0, 0);
+    private final Point end = new Point(0, 0, 0, 0, 0, 0);
+    private final Point sample = new Point(0, 0);
+
+    private boolean built = false;
+    private boolean arcLengthParameterized = false;
+    private float fromX, fromY, toX, toY;
+
+    public CurvedPathTable() {
+        this(DEFAULT_SAMPLES);
+    }
+
+    public CurvedPathTable(int samples) {
+        if(samples < 2){
+            throw new IllegalArgumentException("CurvedPathTable needs at least two samples");
+        }
+        this.samples = samples;
+        this.points = new float[samples * 2];
+        this.rawPoints = new float[samples * 2];
+        this.lengths = new float[samples];
+        this.evaluator = new CurvedPathEvaluator(sample);
+    }
+
+    /**
+     * When arc length parameterized, equal steps in the sampled fraction cover equal
+     * distances along the curve instead of equal steps of the Bézier parameter.
+     */
+    public void setArcLengthParameterized(boolean arcLengthParameterized) {
+        if(this.arcLengthParameterized != arcLengthParameterized){
+            this.arcLengthParameterized = arcLengthParameterized;
+            built = false;
+        }
+    }
+
+    public boolean isArcLengthParameterized() {
+        return arcLengthParameterized;
+    }
+
+    /**
+     * Rebuilds the table for the given endpoints, unless it already holds that curve.
+     *
+     * @return whether the table had to be rebuilt
+     */
+    public boolean update(float fromX, float fromY, float toX, float toY) {
+        if(built && this.fromX == fromX && this.fromY == fromY && this.toX == toX && this.toY == toY){
+            return false;
+        }
+        this.fromX = fromX;
+        this.fromY = fromY;
+        this.toX = toX;
+        this.toY = toY;
+        build();
+        return true;
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    private void build() {
+        start.set(fromX, fromY);
+        end.control0X = Math.max(fromX, toX)*1.5f;
+        end.control0Y = (toY + fromY)/2;
+        end.control1X = (toX + fromX)/2;
+        end.control1Y = Math.max(fromY, toY)*2.25f;
+        end.set(toX, toY);
+
+        float[] target = arcLengthParameterized ? rawPoints : points;
+        for(int i = 0; i < samples; i++){
+            evaluator.evaluate((float) i / (samples - 1), start, end);
+            target[2*i] = sample.x;
+            target[2*i + 1] = sample.y;
+        }
+        if(arcLengthParameterized){
+            reparameterizeByArcLength();
+        }
+        built = true;
+    }
+
+    private void reparameterizeByArcLength() {
+        lengths[0] = 0;
+        for(int i = 1; i < samples; i++){
+            float dx = rawPoints[2*i] - rawPoints[2*(i - 1)];
+            float dy = rawPoints[2*i + 1] - rawPoints[2*(i - 1) + 1];
+            lengths[i] = lengths[i - 1] + (float) Math.sqrt(dx*dx + dy*dy);
+        }
+
+        float totalLength = lengths[samples - 1];
+        int segment = 1;
+        for(int i = 0; i < samples; i++){
+            float targetLength = totalLength * i / (samples - 1);
+            while(segment < samples - 1 && lengths[segment] < targetLength){
+                segment++;
+            }
+            float segmentLength = lengths[segment] - lengths[segment - 1];
+            float t = segmentLength > 0 ? (targetLength - lengths[segment - 1]) / segmentLength : 0;
+            points[2*i] = lerp(rawPoints[2*(segment - 1)], rawPoints[2*segment], t);
+            points[2*i + 1] = lerp(rawPoints[2*(segment - 1) + 1], rawPoints[2*segment + 1], t);
+        }
+    }
+
+    /**
+     * Writes the position at the given fraction of the curve into {@code out}.
+     */
+    public Point sample(float fraction, Point out) {
+        float position = Math.min(Math.max(fraction, 0), 1) * (samples - 1);
+        int index = Math.min((int) position, samples - 2);
+        float t = position - index;
+        out.set(lerp(points[2*index], points[2*(index + 1)], t),
+                lerp(points[2*index + 1], points[2*(index + 1) + 1], t));
+        return out;
+    }
+
+    private static float lerp(float from, float to, float t) {
+        return from + (to - from) * t;
+    }
+}
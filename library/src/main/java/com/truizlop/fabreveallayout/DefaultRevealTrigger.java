@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.util.TypedValue;
+import android.view.View;
+
+import java.lang.reflect.Method;
+
+/**
+ * Takes the child with the given id as the trigger, or any FloatingActionButton when no id is
+ * given. The FloatingActionButton is recognised by its class name, and its tint read by
+ * reflection before API 21, so the design support library is not needed unless the app uses
+ * it.
+ */
+public class DefaultRevealTrigger implements RevealTrigger {
+
+    private static final String FLOATING_ACTION_BUTTON = "android.support.design.widget.FloatingActionButton";
+    private static final int DEFAULT_COLOR = 0xFF000000;
+
+    private final int triggerId;
+    private Method tintGetter = null;
+    private Context accentColorContext = null;
+    private int accentColor;
+
+    public DefaultRevealTrigger() {
+        this(View.NO_ID);
+    }
+
+    public DefaultRevealTrigger(int triggerId) {
+        this.triggerId = triggerId;
+    }
+
+    @Override
+    public boolean isTrigger(View child) {
+        if(triggerId != View.NO_ID){
+            return child.getId() == triggerId;
+        }
+        return isFloatingActionButton(child);
+    }
+
+    private boolean isFloatingActionButton(View child) {
+        for(Class<?> type = child.getClass(); type != View.class; type = type.getSuperclass()){
+            if(FLOATING_ACTION_BUTTON.equals(type.getName())){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The tint of the background, or the color of a plain color background. Before API 21 the
+     * tint of a FloatingActionButton is read through its own getBackgroundTintList, and one
+     * without a tint takes the accent color of the theme, like the button itself.
+     */
+    @Override
+    public int getColor(View trigger) {
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP && hasTint(trigger)){
+            return getTintColor(trigger);
+        }
+        if(isFloatingActionButton(trigger)){
+            ColorStateList tint = getFloatingActionButtonTint(trigger);
+            return tint != null ? tint.getDefaultColor() : getCachedAccentColor(trigger.getContext());
+        }
+        Drawable background = trigger.getBackground();
+        if(background instanceof ColorDrawable){
+            return ((ColorDrawable) background).getColor();
+        }
+        return DEFAULT_COLOR;
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private boolean hasTint(View trigger) {
+        return trigger.getBackgroundTintList() != null;
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private int getTintColor(View trigger) {
+        return trigger.getBackgroundTintList().getDefaultColor();
+    }
+
+    private ColorStateList getFloatingActionButtonTint(View trigger) {
+        try {
+            if(tintGetter == null || !tintGetter.getDeclaringClass().isInstance(trigger)){
+                tintGetter = trigger.getClass().getMethod("getBackgroundTintList");
+            }
+            return (ColorStateList) tintGetter.invoke(trigger);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * The accent color is read from the theme once per context. Resolving it looks the
+     * attribute up by name, which allocates, and the color is read on the frame where the
+     * circle first shows.
+     */
+    private int getCachedAccentColor(Context context) {
+        if(context != accentColorContext){
+            accentColor = getAccentColor(context);
+            accentColorContext = context;
+        }
+        return accentColor;
+    }
+
+    /**
+     * The colorAccent of the support library, which FloatingActionButton defaults to, or the
+     * one of the platform theme from API 21.
+     */
+    private int getAccentColor(Context context) {
+        int attr = context.getResources().getIdentifier("colorAccent", "attr", context.getPackageName());
+        if(attr == 0 && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP){
+            attr = android.R.attr.colorAccent;
+        }
+        TypedValue value = new TypedValue();
+        if(attr == 0 || !context.getTheme().resolveAttribute(attr, value, true)){
+            return DEFAULT_COLOR;
+        }
+        if(value.type >= TypedValue.TYPE_FIRST_COLOR_INT && value.type <= TypedValue.TYPE_LAST_COLOR_INT){
+            return value.data;
+        }
+        return value.resourceId != 0 ? context.getResources().getColor(value.resourceId) : DEFAULT_COLOR;
+    }
+}
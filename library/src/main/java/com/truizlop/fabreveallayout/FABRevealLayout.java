@@ -17,17 +17,29 @@ package com.truizlop.fabreveallayout;
 
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
-import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
+import android.animation.ValueAnimator;
+import android.app.ActivityManager;
 import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
 import android.os.Build;
-import android.support.design.widget.FloatingActionButton;
-import android.support.v4.view.animation.FastOutSlowInInterpolator;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.provider.Settings;
 import android.util.AttributeSet;
 import android.util.TypedValue;
+import android.view.LayoutInflater;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewConfiguration;
+import android.view.ViewStub;
+import android.view.animation.AnimationUtils;
 import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+import android.view.animation.OvershootInterpolator;
 import android.widget.RelativeLayout;
 
 import java.util.ArrayList;
@@ -35,21 +47,196 @@ import java.util.List;
 
 public class FABRevealLayout extends RelativeLayout {
 
+    /**
+     * Controls whether the views that fade out during a transition are moved to a hardware
+     * layer while they fade. {@link #AUTO} only does so on hardware accelerated windows and
+     * for views whose subtree is large enough to make redrawing it on every frame expensive.
+     */
+    public enum LayerPolicy {
+        NONE, HARDWARE, AUTO
+    }
+
+    /**
+     * Transition state of the layout. A running transition can be reversed at any time, in
+     * which case the layout switches between {@link #REVEALING} and {@link #HIDING} and the
+     * animation continues backwards from its current progress.
+     */
+    public enum State {
+        IDLE_MAIN, REVEALING, IDLE_SECONDARY, HIDING
+    }
+
+    /**
+     * What is left behind the secondary view once the circle is fully expanded.
+     * {@link #CIRCLE} keeps drawing the expanded circle view. {@link #BACKGROUND} fills its
+     * bounds with the circle color from the layout instead, and skips the fill altogether when
+     * the secondary view is opaque and covers it, so an idle secondary view costs a single
+     * layer of fill.
+     */
+    public enum ExpandedCircleMode {
+        CIRCLE, BACKGROUND
+    }
+
+    /**
+     * How the secondary view appears. {@link #CIRCLE} expands a circle of the FAB color and
+     * then swaps it for the secondary view. {@link #CLIP} shows the secondary view right away,
+     * clipped to the growing circle, so there is no extra fill and no swap at the end. Path
+     * clipping is not available on hardware accelerated windows before API 18, which keep
+     * using the circle.
+     */
+    public enum RevealMode {
+        CIRCLE, CLIP
+    }
+
+    /**
+     * How a transition moves. {@link #TWEEN} plays each phase for a fixed duration with its
+     * interpolator. {@link #SPRING} pulls the transition towards its end with a critically
+     * damped spring, which keeps its velocity when the transition is reversed mid-flight
+     * instead of starting again from rest. Springs need API 16; older versions tween.
+     */
+    public enum MotionEngine {
+        TWEEN, SPRING
+    }
+
+    /**
+     * Quality a transition is played with when adaptive quality is enabled. {@link #REDUCED}
+     * drops the alpha fades and shortens both phases, {@link #MINIMAL} also drops the circle
+     * expansion so that the secondary view appears as soon as the FAB stops.
+     */
+    public enum QualityTier {
+        FULL, REDUCED, MINIMAL
+    }
+
+    /**
+     * The two phases of a transition: the FAB moving along its path, then the circle
+     * expanding from it. They run at the same time while the phases overlap.
+     */
+    public enum Phase {
+        MOVE, CIRCLE
+    }
+
     private static final int MAX_CHILD_VIEWS = 2;
+    private static final int AUTO_LAYER_MIN_VIEWS = 8;
     private static final int FAB_SIZE = 48;
     private static final int ANIMATION_DURATION = 500;
-    private final Interpolator INTERPOLATOR = new FastOutSlowInInterpolator();
+    private static final int STAGGER_DELAY = 50;
+    private static final float NO_PROGRESS = -1;
+    private static final Interpolator STAGGER_INTERPOLATOR = new OvershootInterpolator();
+    private static final OnRevealProgressListener[] NO_PROGRESS_LISTENERS = new OnRevealProgressListener[0];
+    private final Interpolator INTERPOLATOR = CubicBezierInterpolator.fastOutSlowIn();
+    private final Interpolator LINEAR_INTERPOLATOR = new LinearInterpolator();
 
     private List<View> childViews = null;
-    private FloatingActionButton fab = null;
+    private View fab = null;
+    private RevealTrigger trigger = new DefaultRevealTrigger();
     private CircularExpandingView circularExpandingView = null;
+    private final Point fabPosition = new Point(0, 0);
+    private final CurvedPathTable fabPath = new CurvedPathTable();
+    private LayerPolicy layerPolicy = LayerPolicy.AUTO;
+    private ExpandedCircleMode expandedCircleMode = ExpandedCircleMode.BACKGROUND;
+    private final Paint expandedCirclePaint = new Paint();
+    private boolean fillsExpandedCircle = false;
+    private CircularExpandingView.RenderEngine renderEngine = CircularExpandingView.RenderEngine.AUTO;
+    private View layeredView = null;
+    private boolean snapshotFading = false;
+    private View snapshotView = null;
+    private Bitmap snapshot = null;
+    private float snapshotAlpha = 1;
+    private final Canvas snapshotCanvas = new Canvas();
+    private final Paint snapshotPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private int layeredViewOriginalLayerType = LAYER_TYPE_NONE;
     private OnRevealChangeListener onRevealChangeListener = null;
+    private OnRevealMetricsListener onRevealMetricsListener = null;
+    private OnRevealProgressListener[] onRevealProgressListeners = NO_PROGRESS_LISTENERS;
+    private RevealMetricsRecorder metricsRecorder = null;
     private OnClickListener fabClickListener = new OnClickListener() {
         @Override
         public void onClick(View v) {
             revealSecondaryView();
         }
     };
+    private boolean revealOnTouchDown = false;
+    private boolean fabTouched = false;
+    private long touchEventTime = 0;
+    private State state = State.IDLE_MAIN;
+    private RevealTimeline timeline = null;
+    private long moveDuration = ANIMATION_DURATION;
+    private Interpolator moveInterpolator = INTERPOLATOR;
+    private long circleDuration = CircularExpandingView.ANIMATION_DURATION;
+    private Interpolator circleInterpolator = null;
+    private AdaptiveQuality adaptiveQuality = null;
+    private final StaggerSchedule staggerSchedule = new StaggerSchedule(0, STAGGER_DELAY, STAGGER_INTERPOLATOR);
+    private ChildStagger childStagger = null;
+    private QualityTier qualityTier = QualityTier.FULL;
+    private float phaseOverlap = 0;
+    private boolean strictLayoutMode = false;
+    private boolean wrapsContent = false;
+    private ViewStub declaredSecondaryViewStub = null;
+    private boolean asyncSecondaryViewInflation = false;
+    private boolean replacingSecondaryView = false;
+    private BackgroundInflater secondaryViewInflater = null;
+    private BackgroundInflater.Callback secondaryViewInflaterCallback = new BackgroundInflater.Callback() {
+        @Override
+        public void onInflated(View view) {
+            secondaryViewInflater = null;
+            if(view != null && !isSecondaryViewInflated()){
+                replaceSecondaryView(view);
+            }
+        }
+    };
+    private ValueAnimator transitionAnimator = null;
+    private MotionEngine motionEngine = MotionEngine.TWEEN;
+    private RevealMode revealMode = RevealMode.CIRCLE;
+    private final RevealClip revealClip = new RevealClip();
+    private boolean clipsSecondaryView = false;
+    private SpringProgressDriver springDriver = null;
+    private RevealFrameCoordinator frameCoordinator = null;
+    private CoordinatedTransition coordinatedTransition = null;
+    private CoordinatedTransition.Listener coordinatedTransitionListener = new CoordinatedTransition.Listener() {
+        @Override
+        public void onProgress(float progress) {
+            updateTransition(progress);
+        }
+
+        @Override
+        public void onFinished() {
+            onTransitionEnd();
+        }
+    };
+    private SpringProgressDriver.Listener springListener = new SpringProgressDriver.Listener() {
+        @Override
+        public void onProgress(float progress) {
+            updateTransition(progress);
+        }
+
+        @Override
+        public void onSettled() {
+            onTransitionEnd();
+        }
+    };
+    private boolean transitionReversed = false;
+    private float transitionProgress = 0;
+    private boolean resumeTransitionOnRestore = false;
+    private float resumeProgress = NO_PROGRESS;
+    private boolean resumeRevealing = false;
+    private boolean cancellingTransition = false;
+    private boolean circleUsesNativeReveal = false;
+    private Animator nativeReveal = null;
+    private final PhaseInterpolator nativeRevealInterpolator = new PhaseInterpolator();
+    private ValueAnimator.AnimatorUpdateListener transitionUpdateListener = new ValueAnimator.AnimatorUpdateListener() {
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            updateTransition(animation.getAnimatedFraction());
+        }
+    };
+    private Animator.AnimatorListener transitionListener = new AnimatorListenerAdapter() {
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            super.onAnimationEnd(animation);
+            if(!cancellingTransition){
+                onTransitionEnd();
+            }
+        }
+    };
 
     public FABRevealLayout(Context context) {
         this(context, null);
@@ -62,20 +249,84 @@ public class FABRevealLayout extends RelativeLayout {
     public FABRevealLayout(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
         childViews = new ArrayList<>(2);
+        if(attrs != null){
+            readAttributes(attrs, defStyleAttr);
+        }
+    }
+
+    private void readAttributes(AttributeSet attrs, int defStyleAttr){
+        TypedArray a = getContext().obtainStyledAttributes(attrs, R.styleable.FABRevealLayout, defStyleAttr, 0);
+        String triggerClassName = a.getString(R.styleable.FABRevealLayout_fabReveal_trigger);
+        if(triggerClassName != null){
+            trigger = instantiateTrigger(triggerClassName);
+        }else{
+            trigger = new DefaultRevealTrigger(a.getResourceId(R.styleable.FABRevealLayout_fabReveal_triggerId, View.NO_ID));
+        }
+        setMoveDuration(a.getInt(R.styleable.FABRevealLayout_fabReveal_moveDuration, ANIMATION_DURATION));
+        setCircleDuration(a.getInt(R.styleable.FABRevealLayout_fabReveal_circleDuration, CircularExpandingView.ANIMATION_DURATION));
+        int moveInterpolatorId = a.getResourceId(R.styleable.FABRevealLayout_fabReveal_moveInterpolator, 0);
+        if(moveInterpolatorId != 0){
+            moveInterpolator = AnimationUtils.loadInterpolator(getContext(), moveInterpolatorId);
+        }
+        int circleInterpolatorId = a.getResourceId(R.styleable.FABRevealLayout_fabReveal_circleInterpolator, 0);
+        if(circleInterpolatorId != 0){
+            circleInterpolator = AnimationUtils.loadInterpolator(getContext(), circleInterpolatorId);
+        }
+        setPhaseOverlap(a.getFloat(R.styleable.FABRevealLayout_fabReveal_phaseOverlap, phaseOverlap));
+        setMotionEngine(MotionEngine.values()[a.getInt(R.styleable.FABRevealLayout_fabReveal_motionEngine, motionEngine.ordinal())]);
+        setRevealMode(RevealMode.values()[a.getInt(R.styleable.FABRevealLayout_fabReveal_revealMode, revealMode.ordinal())]);
+        setExpandedCircleMode(ExpandedCircleMode.values()[a.getInt(R.styleable.FABRevealLayout_fabReveal_expandedCircleMode, expandedCircleMode.ordinal())]);
+        setLayerPolicy(LayerPolicy.values()[a.getInt(R.styleable.FABRevealLayout_fabReveal_layerPolicy, layerPolicy.ordinal())]);
+        setAdaptiveQuality(a.getBoolean(R.styleable.FABRevealLayout_fabReveal_adaptiveQuality, false));
+        staggerSchedule.setDelay(a.getInt(R.styleable.FABRevealLayout_fabReveal_staggerDelay, STAGGER_DELAY));
+        int staggerInterpolatorId = a.getResourceId(R.styleable.FABRevealLayout_fabReveal_staggerInterpolator, 0);
+        if(staggerInterpolatorId != 0){
+            staggerSchedule.setInterpolator(AnimationUtils.loadInterpolator(getContext(), staggerInterpolatorId));
+        }
+        setStaggerDuration(a.getInt(R.styleable.FABRevealLayout_fabReveal_staggerDuration, 0));
+        setSnapshotFading(a.getBoolean(R.styleable.FABRevealLayout_fabReveal_snapshotFading, false));
+        resumeTransitionOnRestore = a.getBoolean(R.styleable.FABRevealLayout_fabReveal_resumeTransitionOnRestore, false);
+        a.recycle();
+    }
+
+    private RevealTrigger instantiateTrigger(String className){
+        try {
+            return (RevealTrigger) Class.forName(className).newInstance();
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Could not instantiate the trigger " + className, e);
+        }
+    }
+
+    /**
+     * Sets how the trigger is picked among the children. It has to be set before the
+     * children are added, so layouts inflated from XML use the {@code fabReveal_trigger} or
+     * {@code fabReveal_triggerId} attributes instead.
+     */
+    public void setTrigger(RevealTrigger trigger) {
+        if(fab != null){
+            throw new IllegalStateException("The trigger has to be set before it is added");
+        }
+        this.trigger = trigger;
     }
 
     @Override
     public void addView(View child, int index, ViewGroup.LayoutParams params) {
         setupView(child);
+        if(fab != null && child != fab){
+            int fabIndex = indexOfChild(fab);
+            if(index < 0 || index > fabIndex){
+                index = fabIndex;
+            }
+        }
         super.addView(child, index, params);
 
-        if(areAllComponentsReady()){
+        if(areAllComponentsReady() && !replacingSecondaryView){
             setupInitialState();
         }
     }
 
     private void setupView(View child) {
-        if(child instanceof FloatingActionButton){
+        if(trigger.isTrigger(child)){
             setupFAB(child);
         }else if(!(child instanceof CircularExpandingView)){
             setupChildView(child);
@@ -84,11 +335,15 @@ public class FABRevealLayout extends RelativeLayout {
 
     private void setupFAB(View view){
         validateFAB();
-        fab = (FloatingActionButton) view;
+        fab = view;
         fab.setOnClickListener(fabClickListener);
     }
 
     private void setupChildView(View view){
+        if(replacingSecondaryView){
+            childViews.set(1, view);
+            return;
+        }
         validateChildView();
         childViews.add(view);
         if(childViews.size() == 1){
@@ -98,7 +353,7 @@ public class FABRevealLayout extends RelativeLayout {
 
     private void validateFAB() {
         if(fab != null){
-            throw new IllegalArgumentException("FABRevealLayout can only hold one FloatingActionButton");
+            throw new IllegalArgumentException("FABRevealLayout can only hold one trigger view");
         }
     }
 
@@ -110,9 +365,10 @@ public class FABRevealLayout extends RelativeLayout {
 
     private void addCircularRevealView() {
         circularExpandingView = new CircularExpandingView(getContext());
+        circularExpandingView.setRenderEngine(renderEngine);
         LayoutParams params = new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT);
         params.topMargin = dipsToPixels(FAB_SIZE);
-        circularExpandingView.setVisibility(View.GONE);
+        circularExpandingView.setVisibility(View.INVISIBLE);
         addView(circularExpandingView, params);
     }
 
@@ -123,6 +379,7 @@ public class FABRevealLayout extends RelativeLayout {
     private void setupInitialState(){
         setupFABPosition();
         setupChildViewsPosition();
+        setupAnimators();
     }
 
     private void setupFABPosition(){
@@ -133,30 +390,333 @@ public class FABRevealLayout extends RelativeLayout {
             params.rightMargin = dipsToPixels(16);
             params.topMargin = dipsToPixels(20);
         }
-        fab.bringToFront();
+    }
+
+    private void setupAnimators(){
+        setupTimeline();
+
+        transitionAnimator = ValueAnimator.ofFloat(0, 1);
+        transitionAnimator.setInterpolator(LINEAR_INTERPOLATOR);
+        transitionAnimator.addUpdateListener(transitionUpdateListener);
+        transitionAnimator.addListener(transitionListener);
+    }
+
+    /**
+     * A spring already eases the whole transition, so its phases are mapped linearly.
+     */
+    private void setupTimeline(){
+        boolean linear = springDriver != null;
+        timeline = new RevealTimeline(moveDuration, linear ? LINEAR_INTERPOLATOR : moveInterpolator,
+                circleDuration, linear ? LINEAR_INTERPOLATOR : getCircleInterpolator());
+        timeline.setPhaseOverlap(phaseOverlap);
+        applyQualityTier();
+    }
+
+    private Interpolator getCircleInterpolator(){
+        return circleInterpolator != null ? circleInterpolator : circularExpandingView.INTERPOLATOR;
+    }
+
+    private void applyQualityTier(){
+        timeline.setDurations(AdaptiveQuality.scaleMoveDuration(moveDuration, qualityTier),
+                AdaptiveQuality.scaleCircleDuration(circleDuration, qualityTier));
+    }
+
+    ValueAnimator getTransitionAnimator(){
+        return transitionAnimator;
     }
 
     private void setupChildViewsPosition(){
         for(int i = 0; i < childViews.size(); i++){
-            RelativeLayout.LayoutParams params = (RelativeLayout.LayoutParams) childViews.get(i).getLayoutParams();
-            params.topMargin = dipsToPixels(FAB_SIZE);
+            setupChildViewMargin(childViews.get(i));
+        }
+        if(isSecondaryViewInflated()){
+            getSecondaryView().setVisibility(INVISIBLE);
+        }
+    }
+
+    private void setupChildViewMargin(View view){
+        RelativeLayout.LayoutParams params = (RelativeLayout.LayoutParams) view.getLayoutParams();
+        params.topMargin = dipsToPixels(FAB_SIZE);
+    }
+
+    /**
+     * The hidden view stays {@link #INVISIBLE}, so a layout that wraps its content would be
+     * sized to fit both views. Instead, it is measured once more with the size of the views
+     * that are shown: the trigger and the visible view.
+     */
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        wrapsContent = MeasureSpec.getMode(widthMeasureSpec) != MeasureSpec.EXACTLY ||
+                MeasureSpec.getMode(heightMeasureSpec) != MeasureSpec.EXACTLY;
+        if(!wrapsContent || !areAllComponentsReady() || !hasInvisibleChildView()){
+            return;
+        }
+
+        int width = 0;
+        int height = 0;
+        for(int i = 0; i < getChildCount(); i++){
+            View child = getChildAt(i);
+            if(child.getVisibility() != VISIBLE || child == circularExpandingView){
+                continue;
+            }
+            MarginLayoutParams params = (MarginLayoutParams) child.getLayoutParams();
+            width = Math.max(width, child.getMeasuredWidth() + params.leftMargin + params.rightMargin);
+            height = Math.max(height, child.getMeasuredHeight() + params.topMargin + params.bottomMargin);
+        }
+        width = Math.max(width + getPaddingLeft() + getPaddingRight(), getSuggestedMinimumWidth());
+        height = Math.max(height + getPaddingTop() + getPaddingBottom(), getSuggestedMinimumHeight());
+
+        super.onMeasure(
+                MeasureSpec.makeMeasureSpec(Math.min(resolveSize(width, widthMeasureSpec), getMeasuredWidth()), MeasureSpec.EXACTLY),
+                MeasureSpec.makeMeasureSpec(Math.min(resolveSize(height, heightMeasureSpec), getMeasuredHeight()), MeasureSpec.EXACTLY));
+    }
+
+    private boolean hasInvisibleChildView(){
+        for(int i = 0; i < childViews.size(); i++){
+            if(childViews.get(i).getVisibility() == INVISIBLE){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Swapping the views needs no layout pass, unless the layout wraps its content, whose
+     * size follows the view that is shown.
+     */
+    private void requestLayoutIfWrapsContent(){
+        if(wrapsContent){
+            requestLayout();
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+        if(areAllComponentsReady()){
+            layoutCircularExpandingView();
+            updateFabPath();
+            if(resumeProgress != NO_PROGRESS){
+                resumeTransition();
+            }
         }
-        getSecondaryView().setVisibility(GONE);
+    }
+
+    /**
+     * The circle covers the main view only, so it is given the height of the main view here
+     * instead of changing its layout params, which would request another layout pass.
+     */
+    private void layoutCircularExpandingView(){
+        int top = circularExpandingView.getTop();
+        circularExpandingView.layout(circularExpandingView.getLeft(), top,
+                circularExpandingView.getRight(), top + getMainView().getHeight());
+    }
+
+    @Override
+    public void requestLayout() {
+        super.requestLayout();
+        if(strictLayoutMode && isTransitionRunning() && !replacingSecondaryView){
+            throw new IllegalStateException("Layout requested during a " + state + " transition");
+        }
+    }
+
+    private boolean isTransitionRunning(){
+        return state == State.REVEALING || state == State.HIDING;
+    }
+
+    private void updateFabPath(){
+        View view = getMainView();
+
+        float fromX = fab.getLeft();
+        float fromY = fab.getTop();
+        float toX = view.getWidth() / 2 - fab.getWidth() / 2 + view.getLeft();
+        float toY = view.getHeight() / 2 - fab.getHeight() / 2 + view.getTop();
+
+        fabPath.update(fromX, fromY, toX, toY);
     }
 
     private boolean isShowingMainView(){
         return getMainView().getVisibility() == VISIBLE;
     }
 
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Whether the layout shows, or is moving towards, the secondary view.
+     */
+    public boolean isRevealed() {
+        return state == State.REVEALING || state == State.IDLE_SECONDARY;
+    }
+
+    /**
+     * Shows the main or the secondary view right away, cancelling any running transition.
+     * Meant for binding recycled views: it starts no animator, does not request a layout
+     * unless a lazy secondary view has to be inflated or the layout wraps its content, and
+     * does not notify the
+     * {@link OnRevealChangeListener}. A layout already idle on the requested view is left
+     * untouched.
+     */
+    public void setRevealed(boolean revealed) {
+        if(!areAllComponentsReady()){
+            throw new IllegalStateException("FABRevealLayout needs a trigger view and two views");
+        }
+        if(isIdleOn(revealed)){
+            return;
+        }
+        cancelTransition();
+        resumeProgress = NO_PROGRESS;
+        if(childStagger != null){
+            childStagger.cancel();
+        }
+        revealClip.stop();
+        clipsSecondaryView = shouldClipSecondaryView();
+        if(revealed && !isSecondaryViewInflated()){
+            inflateSecondaryView();
+        }
+
+        setFabTranslation(0, 0);
+        setVisibility(fab, revealed ? INVISIBLE : VISIBLE);
+        if(revealed){
+            circularExpandingView.setExpandFraction(1);
+            showExpandedCircle();
+        }else{
+            clearExpandedCircle();
+            setVisibility(circularExpandingView, INVISIBLE);
+        }
+        setVisibility(getMainView(), revealed ? INVISIBLE : VISIBLE);
+        setVisibility(getSecondaryView(), revealed ? VISIBLE : INVISIBLE);
+        finishTransition(revealed ? State.IDLE_SECONDARY : State.IDLE_MAIN);
+        requestLayoutIfWrapsContent();
+    }
+
+    private boolean isIdleOn(boolean revealed){
+        return state == (revealed ? State.IDLE_SECONDARY : State.IDLE_MAIN) &&
+                resumeProgress == NO_PROGRESS &&
+                (childStagger == null || !childStagger.isActive());
+    }
+
+    /**
+     * When the state is restored in the middle of a transition, picks up the transition from
+     * where it was instead of jumping to the view it was heading to, the default.
+     */
+    public void setResumeTransitionOnRestore(boolean resumeTransitionOnRestore) {
+        this.resumeTransitionOnRestore = resumeTransitionOnRestore;
+    }
+
+    public boolean getResumeTransitionOnRestore() {
+        return resumeTransitionOnRestore;
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState savedState = new SavedState(super.onSaveInstanceState());
+        savedState.revealed = isRevealed();
+        savedState.transitionProgress = isTransitionRunning() ? transitionProgress : NO_PROGRESS;
+        return savedState;
+    }
+
+    /**
+     * The views are shown right away, without a layout pass. A transition that is resumed
+     * waits for the next layout, since its path depends on the size of the views.
+     */
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if(!(state instanceof SavedState)){
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        if(!areAllComponentsReady()){
+            return;
+        }
+        if(!resumeTransitionOnRestore || savedState.transitionProgress == NO_PROGRESS){
+            setRevealed(savedState.revealed);
+            return;
+        }
+        setRevealed(!savedState.revealed);
+        resumeProgress = savedState.transitionProgress;
+        resumeRevealing = savedState.revealed;
+        if(getWidth() > 0 && !isLayoutRequested()){
+            resumeTransition();
+        }
+    }
+
+    private void resumeTransition(){
+        float progress = resumeProgress;
+        resumeProgress = NO_PROGRESS;
+        if(resumeRevealing){
+            startRevealAnimation(progress);
+        }else{
+            startHideAnimation(progress);
+        }
+    }
+
+    /**
+     * A layout that is detached mid-transition, typically because it has been scrolled out of
+     * a list, lands on the state the transition was heading to so it is not reused halfway.
+     */
+    @Override
+    protected void onDetachedFromWindow() {
+        if(secondaryViewInflater != null){
+            secondaryViewInflater.cancel();
+            secondaryViewInflater = null;
+        }
+        if(isTransitionRunning()){
+            setRevealed(isRevealed());
+        }
+        if(childStagger != null){
+            childStagger.cancel();
+        }
+        super.onDetachedFromWindow();
+    }
+
+    private void cancelTransition(){
+        cancellingTransition = true;
+        if(nativeReveal != null){
+            nativeReveal.cancel();
+            nativeReveal = null;
+        }
+        circleUsesNativeReveal = false;
+        if(transitionAnimator != null){
+            transitionAnimator.cancel();
+        }
+        if(springDriver != null){
+            springDriver.cancel();
+        }
+        if(frameCoordinator != null){
+            frameCoordinator.remove(coordinatedTransition);
+        }
+        cancellingTransition = false;
+        if(metricsRecorder != null){
+            metricsRecorder.stop();
+        }
+    }
+
     public void revealMainView(){
-        if(!isShowingMainView()){
-            startHideAnimation();
+        switch (state){
+            case IDLE_SECONDARY:
+                startHideAnimation(1);
+                break;
+            case REVEALING:
+                state = State.HIDING;
+                reverseTransition();
+                break;
         }
     }
 
     public void revealSecondaryView(){
-        if(isShowingMainView()){
-            startRevealAnimation();
+        switch (state){
+            case IDLE_MAIN:
+                startRevealAnimation(0);
+                break;
+            case HIDING:
+                state = State.REVEALING;
+                reverseTransition();
+                break;
         }
     }
 
@@ -164,125 +724,908 @@ public class FABRevealLayout extends RelativeLayout {
         this.onRevealChangeListener = onRevealChangeListener;
     }
 
-    private void startRevealAnimation(){
-        View disappearingView = getMainView();
+    /**
+     * Adds a listener that is told the progress of every frame of a transition, so other
+     * animations can follow the reveal without animators of their own.
+     */
+    public void addOnRevealProgressListener(OnRevealProgressListener listener) {
+        int count = onRevealProgressListeners.length;
+        OnRevealProgressListener[] listeners = new OnRevealProgressListener[count + 1];
+        System.arraycopy(onRevealProgressListeners, 0, listeners, 0, count);
+        listeners[count] = listener;
+        onRevealProgressListeners = listeners;
+    }
 
-        ObjectAnimator fabAnimator = getFABAnimator();
-        ObjectAnimator alphaAnimator = ObjectAnimator.ofFloat(disappearingView, "alpha", 1, 0);
+    /**
+     * The listeners are copied here rather than on each frame, so removing a listener
+     * while they are being told the progress does not affect the current frame.
+     */
+    public void removeOnRevealProgressListener(OnRevealProgressListener listener) {
+        int count = onRevealProgressListeners.length;
+        for(int i = 0; i < count; i++){
+            if(onRevealProgressListeners[i] == listener){
+                OnRevealProgressListener[] listeners = new OnRevealProgressListener[count - 1];
+                System.arraycopy(onRevealProgressListeners, 0, listeners, 0, i);
+                System.arraycopy(onRevealProgressListeners, i + 1, listeners, i, count - i - 1);
+                onRevealProgressListeners = count == 1 ? NO_PROGRESS_LISTENERS : listeners;
+                return;
+            }
+        }
+    }
 
-        AnimatorSet set = new AnimatorSet();
-        set.play(fabAnimator).with(alphaAnimator);
-        setupAnimationParams(set);
-        set.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                super.onAnimationEnd(animation);
-                fab.setVisibility(GONE);
-                prepareForReveal();
-                expandCircle();
+    /**
+     * Registers a listener that receives the frame timing of every transition. Frames are
+     * only measured while a listener is set, and only on API 16 and above.
+     */
+    public void setOnRevealMetricsListener(OnRevealMetricsListener onRevealMetricsListener) {
+        this.onRevealMetricsListener = onRevealMetricsListener;
+        updateMetricsRecorder();
+    }
+
+    /**
+     * Frames are measured while someone needs them: the metrics listener or the adaptive
+     * quality.
+     */
+    private void updateMetricsRecorder(){
+        if(onRevealMetricsListener == null && adaptiveQuality == null){
+            if(metricsRecorder != null){
+                metricsRecorder.stop();
+                metricsRecorder = null;
             }
-        } );
+        }else if(metricsRecorder == null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN){
+            metricsRecorder = new RevealMetricsRecorder(getContext());
+        }
+    }
 
-        set.start();
+    public void setRenderEngine(CircularExpandingView.RenderEngine renderEngine) {
+        this.renderEngine = renderEngine;
+        if(circularExpandingView != null){
+            circularExpandingView.setRenderEngine(renderEngine);
+        }
     }
 
-    private void prepareForReveal() {
-        circularExpandingView.getLayoutParams().height = getMainView().getHeight();
-        circularExpandingView.setColor(fab.getBackgroundTintList() != null ?
-                        fab.getBackgroundTintList().getDefaultColor() :
-                        0xFF000000
-        );
-        circularExpandingView.setVisibility(VISIBLE);
+    /**
+     * Makes the FAB travel its path at a uniform speed along the curve, before the
+     * interpolator is applied.
+     */
+    public void setFabPathArcLengthParameterized(boolean arcLengthParameterized) {
+        fabPath.setArcLengthParameterized(arcLengthParameterized);
     }
 
-    private void setupAnimationParams(Animator animator) {
-        animator.setInterpolator(INTERPOLATOR);
-        animator.setDuration(ANIMATION_DURATION);
+    /**
+     * Sets how much of the circle expansion runs while the FAB is still moving, from 0 (the
+     * circle starts once the FAB stops) to 1. Higher values shorten the whole transition.
+     */
+    public void setPhaseOverlap(float phaseOverlap) {
+        if(phaseOverlap < 0 || phaseOverlap > 1){
+            throw new IllegalArgumentException("Phase overlap must be between 0 and 1");
+        }
+        this.phaseOverlap = phaseOverlap;
+        if(timeline != null){
+            timeline.setPhaseOverlap(phaseOverlap);
+        }
     }
 
-    private CurvedAnimator getCurvedAnimator() {
-        View view = getMainView();
+    /**
+     * Debug aid: when enabled, any layout request that reaches this layout while a transition
+     * is running throws an {@link IllegalStateException}, whose stack trace points at the
+     * view that requested it. Transitions themselves only change translation, alpha and the
+     * circle, so they never need a layout pass.
+     */
+    public void setStrictLayoutMode(boolean strictLayoutMode) {
+        this.strictLayoutMode = strictLayoutMode;
+    }
 
-        float fromX = fab.getLeft();
-        float fromY = fab.getTop();
-        float toX = view.getWidth() / 2 - fab.getWidth() / 2 + view.getLeft();
-        float toY = view.getHeight() / 2 - fab.getHeight() / 2 + view.getTop();
+    /**
+     * Declares the secondary view as a layout resource that is only inflated the first time
+     * it is revealed. A {@link ViewStub} declared as the second child behaves the same way.
+     */
+    public void setSecondaryViewLayout(int layoutResId) {
+        declaredSecondaryViewStub = new ViewStub(getContext(), layoutResId);
+        addView(declaredSecondaryViewStub);
+    }
+
+    /**
+     * Inflates a lazy secondary view on a background thread while the FAB moves, instead of
+     * on the main thread when the reveal starts. If it is not ready when the views are
+     * swapped, or cannot be inflated off the main thread, it is inflated right away. In
+     * {@link RevealMode#CLIP} it is always inflated when the reveal starts, since it shows
+     * while the circle grows.
+     */
+    public void setAsyncSecondaryViewInflation(boolean asyncSecondaryViewInflation) {
+        this.asyncSecondaryViewInflation = asyncSecondaryViewInflation;
+    }
+
+    public void setExpandedCircleMode(ExpandedCircleMode expandedCircleMode) {
+        this.expandedCircleMode = expandedCircleMode;
+        if(state == State.IDLE_SECONDARY){
+            clearExpandedCircle();
+            showExpandedCircle();
+        }
+    }
 
-        if(isShowingMainView()) {
-            return new CurvedAnimator(fromX, fromY, toX, toY);
+    public ExpandedCircleMode getExpandedCircleMode() {
+        return expandedCircleMode;
+    }
+
+    /**
+     * Selects how transitions move. A running transition is finished right away.
+     */
+    public void setMotionEngine(MotionEngine motionEngine) {
+        if(isTransitionRunning()){
+            setRevealed(isRevealed());
+        }
+        this.motionEngine = motionEngine;
+        if(motionEngine == MotionEngine.SPRING && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN){
+            if(springDriver == null){
+                springDriver = new SpringProgressDriver(springListener);
+            }
         }else{
-            return new CurvedAnimator(toX, toY, fromX, fromY);
+            springDriver = null;
+        }
+        if(timeline != null){
+            setupTimeline();
         }
     }
 
-    private ObjectAnimator getFABAnimator(){
-        CurvedAnimator curvedAnimator = getCurvedAnimator();
-        return ObjectAnimator.ofObject(this, "fabPosition", new CurvedPathEvaluator(), curvedAnimator.getPoints());
+    public MotionEngine getMotionEngine() {
+        return motionEngine;
     }
 
-    private void expandCircle(){
-        Animator expandAnimator = circularExpandingView.expand();;
-        expandAnimator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                super.onAnimationEnd(animation);
-                swapViews();
+    /**
+     * Lets a shared coordinator advance the tween transitions of this layout, together with
+     * those of the other layouts that use it, instead of an animator of its own. Usually
+     * {@link RevealFrameCoordinator#getInstance()}, or null to go back to the animator. A
+     * running transition is finished right away. Ignored before API 16.
+     */
+    public void setFrameCoordinator(RevealFrameCoordinator frameCoordinator) {
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN){
+            return;
+        }
+        if(isTransitionRunning()){
+            setRevealed(isRevealed());
+        }
+        this.frameCoordinator = frameCoordinator;
+        if(frameCoordinator != null && coordinatedTransition == null){
+            coordinatedTransition = new CoordinatedTransition(coordinatedTransitionListener);
+        }
+    }
+
+    /**
+     * Sets how long the FAB takes to move along its path, in milliseconds. With 0 the FAB
+     * jumps to the end of its path as soon as the transition starts.
+     */
+    public void setMoveDuration(long moveDuration) {
+        RevealTimeline.checkDuration(moveDuration);
+        this.moveDuration = moveDuration;
+        if(timeline != null){
+            applyQualityTier();
+        }
+    }
+
+    public void setMoveInterpolator(Interpolator moveInterpolator) {
+        this.moveInterpolator = moveInterpolator;
+        if(timeline != null){
+            setupTimeline();
+        }
+    }
+
+    /**
+     * Sets how long the circle takes to expand, in milliseconds. With 0 the secondary view
+     * appears as soon as the FAB stops.
+     */
+    public void setCircleDuration(long circleDuration) {
+        RevealTimeline.checkDuration(circleDuration);
+        this.circleDuration = circleDuration;
+        if(timeline != null){
+            applyQualityTier();
+        }
+    }
+
+    public void setCircleInterpolator(Interpolator circleInterpolator) {
+        this.circleInterpolator = circleInterpolator;
+        if(timeline != null){
+            setupTimeline();
+        }
+    }
+
+    /**
+     * Lets the layout lower the quality of its transitions on low RAM devices, when the
+     * system animations are sped up or turned off, and after transitions that missed too
+     * many frames, raising it again once transitions run smoothly. The tier used is available
+     * from {@link #getQualityTier()} and from the {@link RevealMetrics} of each transition.
+     */
+    public void setAdaptiveQuality(boolean enabled) {
+        if(enabled == (adaptiveQuality != null)){
+            return;
+        }
+        adaptiveQuality = enabled ? new AdaptiveQuality() : null;
+        updateMetricsRecorder();
+    }
+
+    /**
+     * Scales the direct children of the view that appears in, one after another, once a
+     * transition ends. All of them are driven by a single animator. 0, the default, leaves
+     * the children alone.
+     */
+    public void setStaggerDuration(long duration) {
+        staggerSchedule.setDuration(duration);
+        if(duration > 0 && childStagger == null){
+            childStagger = new ChildStagger(staggerSchedule);
+        }else if(duration <= 0 && childStagger != null){
+            childStagger.cancel();
+            childStagger = null;
+        }
+    }
+
+    /**
+     * Sets how long each child waits after the previous one starts scaling in.
+     */
+    public void setStaggerDelay(long delay) {
+        staggerSchedule.setDelay(delay);
+    }
+
+    public void setStaggerInterpolator(Interpolator interpolator) {
+        staggerSchedule.setInterpolator(interpolator);
+    }
+
+    /**
+     * Quality tier of the current or last transition.
+     */
+    public QualityTier getQualityTier() {
+        return qualityTier;
+    }
+
+    /**
+     * Selects how the secondary view appears. Takes effect from the next transition.
+     */
+    public void setRevealMode(RevealMode revealMode) {
+        this.revealMode = revealMode;
+    }
+
+    public RevealMode getRevealMode() {
+        return revealMode;
+    }
+
+    /**
+     * Starts the reveal as soon as the FAB is touched instead of when it is clicked. Either
+     * way, everything the reveal needs is prepared when the FAB is touched.
+     */
+    public void setRevealOnTouchDown(boolean revealOnTouchDown) {
+        this.revealOnTouchDown = revealOnTouchDown;
+    }
+
+    public void setLayerPolicy(LayerPolicy layerPolicy) {
+        this.layerPolicy = layerPolicy;
+    }
+
+    public LayerPolicy getLayerPolicy() {
+        return layerPolicy;
+    }
+
+    /**
+     * Draws the outgoing view once into a bitmap when a transition starts and fades that
+     * bitmap instead of redrawing the live view on every frame. Changes to the view while it
+     * fades out are not shown. The bitmaps come from {@link SnapshotPool#getInstance()}; when
+     * it has none to spare, the live view is faded as usual.
+     */
+    public void setSnapshotFading(boolean snapshotFading) {
+        this.snapshotFading = snapshotFading;
+        if(snapshotFading){
+            SnapshotPool.getInstance().register(getContext());
+        }
+    }
+
+    public boolean isSnapshotFading() {
+        return snapshotFading;
+    }
+
+    /**
+     * Watches the touches on the FAB without intercepting them, which leaves its own touch
+     * listener free for the app.
+     */
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent event) {
+        if(fab != null){
+            onFabTouch(event);
+        }
+        return super.onInterceptTouchEvent(event);
+    }
+
+    /**
+     * Remembers the touch event that is about to start a reveal, so the metrics can report
+     * the latency until its first frame, and prewarms the reveal while the finger is down.
+     * A touch that will not click the FAB, because it was cancelled, lifted outside the FAB
+     * or held into a long press, is not counted in the latency of a later transition.
+     */
+    private void onFabTouch(MotionEvent event){
+        int action = event.getActionMasked();
+        if(action == MotionEvent.ACTION_DOWN){
+            fabTouched = isOnFab(event);
+        }
+        if(!fabTouched || state != State.IDLE_MAIN){
+            return;
+        }
+        switch (action){
+            case MotionEvent.ACTION_DOWN:
+                prewarmReveal();
+                touchEventTime = event.getEventTime();
+                if(revealOnTouchDown){
+                    revealSecondaryView();
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+                fabTouched = false;
+                if(isOnFab(event) && fab.isEnabled() && !isLongPress(event)){
+                    touchEventTime = event.getEventTime();
+                }else{
+                    cancelPrewarm();
+                }
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                fabTouched = false;
+                cancelPrewarm();
+                break;
+        }
+    }
+
+    private boolean isOnFab(MotionEvent event){
+        return event.getX() >= fab.getX() && event.getX() < fab.getX() + fab.getWidth() &&
+                event.getY() >= fab.getY() && event.getY() < fab.getY() + fab.getHeight();
+    }
+
+    private boolean isLongPress(MotionEvent event){
+        return fab.isLongClickable() &&
+                event.getEventTime() - event.getDownTime() >= ViewConfiguration.getLongPressTimeout();
+    }
+
+    /**
+     * Only what is cheap, or off the main thread, is prepared on touch down, since most
+     * touches on the FAB may never click it. Inflating the secondary view on the main thread
+     * and setting up the fading layer or snapshot wait until the reveal starts.
+     */
+    private void prewarmReveal(){
+        if(!fabPath.isBuilt()){
+            updateFabPath();
+        }
+        circularExpandingView.setColor(getCircleColor());
+        if(!isSecondaryViewInflated() && inflatesSecondaryViewInBackground()){
+            startBackgroundInflation();
+        }
+    }
+
+    private void cancelPrewarm(){
+        touchEventTime = 0;
+    }
+
+    private void startRevealAnimation(float from){
+        prepareSecondaryView();
+        updateQualityTier();
+        state = State.REVEALING;
+        if(childStagger != null && isSecondaryViewInflated()){
+            childStagger.prepare(getSecondaryView());
+        }
+        setupFadingLayer(getMainView());
+        startTransition(touchEventTime);
+        transitionProgress = from;
+        if(springDriver != null){
+            springDriver.animate(from, 1);
+        }else if(frameCoordinator != null){
+            startCoordinatedTransition(from, 1);
+        }else{
+            transitionAnimator.start();
+            if(from > 0){
+                seekTransitionAnimator(from);
             }
-        });
-        expandAnimator.start();
+        }
     }
 
-    private void startHideAnimation(){
-        Animator contractAnimator = circularExpandingView.contract();
-        View disappearingView = getSecondaryView();
-        ObjectAnimator alphaAnimator = ObjectAnimator.ofFloat(disappearingView, "alpha", 1, 0);
+    /**
+     * A hide that starts partway, because it is resumed, hands the rest of the circle phase
+     * to the native reveal, if any is left.
+     */
+    private void startHideAnimation(float from){
+        updateQualityTier();
+        state = State.HIDING;
+        if(childStagger != null){
+            childStagger.prepare(getMainView());
+        }
+        clearExpandedCircle();
+        setupFadingLayer(getSecondaryView());
+        startTransition(0);
+        transitionProgress = from;
+        if(!clipsSecondaryView){
+            prepareForReveal();
+        }
+        if(springDriver != null){
+            springDriver.animate(from, 0);
+            return;
+        }
+        if(frameCoordinator != null){
+            startCoordinatedTransition(from, 0);
+            return;
+        }
+        float circleLinearFraction = timeline.getCircleLinearFraction(from);
+        if(!clipsSecondaryView && circleLinearFraction > 0 && circularExpandingView.canUseNativeReveal()){
+            startNativeReveal(circleLinearFraction);
+        }
+        transitionAnimator.reverse();
+        if(from < 1){
+            seekTransitionAnimator(1 - from);
+        }
+    }
 
-        AnimatorSet set = new AnimatorSet();
-        set.play(contractAnimator).with(alphaAnimator);
-        setupAnimationParams(set);
-        set.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                super.onAnimationEnd(animation);
-                fab.setVisibility(VISIBLE);
-                circularExpandingView.setVisibility(GONE);
-                moveFABToOriginalLocation();
+    /**
+     * Moves the running transition animator to the given fraction of its playback. Before API
+     * 22 the play time is measured against the duration scaled by the system animator
+     * duration scale, not against the duration that was set.
+     */
+    private void seekTransitionAnimator(float playedFraction){
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP_MR1){
+            transitionAnimator.setCurrentFraction(playedFraction);
+        }else{
+            transitionAnimator.setCurrentPlayTime(
+                    (long) (playedFraction * timeline.getTotalDuration() * getAnimatorDurationScale()));
+        }
+    }
+
+    private void startCoordinatedTransition(float from, float to){
+        coordinatedTransition.set(from, to, timeline.getTotalDuration());
+        frameCoordinator.start(coordinatedTransition);
+    }
+
+    /**
+     * Transitions driven by a spring or a coordinator have no fixed schedule, so the circle
+     * cannot be handed over to a native reveal.
+     */
+    private boolean hasOwnClock(){
+        return springDriver != null || frameCoordinator != null;
+    }
+
+    private void startTransition(long inputEventTime){
+        touchEventTime = 0;
+        if(!fabPath.isBuilt()){
+            updateFabPath();
+        }
+        transitionReversed = false;
+        clipsSecondaryView = shouldClipSecondaryView();
+        transitionAnimator.setDuration(timeline.getTotalDuration());
+        if(springDriver != null){
+            springDriver.setSettleDuration(timeline.getTotalDuration());
+        }
+        if(metricsRecorder != null){
+            metricsRecorder.start(inputEventTime, qualityTier);
+        }
+    }
+
+    private void updateQualityTier(){
+        QualityTier tier = adaptiveQuality != null ?
+                adaptiveQuality.choose(isLowRamDevice(), getAnimatorDurationScale()) :
+                QualityTier.FULL;
+        if(tier != qualityTier){
+            qualityTier = tier;
+            applyQualityTier();
+        }
+    }
+
+    private boolean isLowRamDevice(){
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT){
+            return false;
+        }
+        ActivityManager activityManager = (ActivityManager) getContext().getSystemService(Context.ACTIVITY_SERVICE);
+        return activityManager.isLowRamDevice();
+    }
+
+    @SuppressWarnings("deprecation")
+    private float getAnimatorDurationScale(){
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1){
+            return Settings.Global.getFloat(getContext().getContentResolver(), Settings.Global.ANIMATOR_DURATION_SCALE, 1);
+        }
+        return Settings.System.getFloat(getContext().getContentResolver(), Settings.System.ANIMATOR_DURATION_SCALE, 1);
+    }
+
+    private boolean shouldClipSecondaryView(){
+        return revealMode == RevealMode.CLIP && RevealClip.isSupported(this);
+    }
+
+    private void prepareForReveal() {
+        circularExpandingView.setColor(getCircleColor());
+        circularExpandingView.setVisibility(VISIBLE);
+    }
+
+    private int getCircleColor(){
+        return trigger.getColor(fab);
+    }
+
+    private void showExpandedCircle(){
+        if(clipsSecondaryView){
+            setVisibility(circularExpandingView, INVISIBLE);
+            return;
+        }
+        if(expandedCircleMode == ExpandedCircleMode.CIRCLE){
+            prepareForReveal();
+            return;
+        }
+        setVisibility(circularExpandingView, INVISIBLE);
+        fillsExpandedCircle = !coversExpandedCircle(getSecondaryView());
+        if(fillsExpandedCircle){
+            expandedCirclePaint.setColor(getCircleColor());
+            invalidate();
+        }
+    }
+
+    private boolean coversExpandedCircle(View view){
+        return view.isOpaque() &&
+                view.getLeft() <= circularExpandingView.getLeft() &&
+                view.getTop() <= circularExpandingView.getTop() &&
+                view.getRight() >= circularExpandingView.getRight() &&
+                view.getBottom() >= circularExpandingView.getBottom();
+    }
+
+    private void clearExpandedCircle(){
+        if(fillsExpandedCircle){
+            fillsExpandedCircle = false;
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        if(fillsExpandedCircle){
+            canvas.drawRect(circularExpandingView.getLeft(), circularExpandingView.getTop(),
+                    circularExpandingView.getRight(), circularExpandingView.getBottom(), expandedCirclePaint);
+        }
+        super.dispatchDraw(canvas);
+    }
+
+    private void updateTransition(float progress){
+        updateTransition(progress, true);
+    }
+
+    /**
+     * Single frame callback of a transition. Every phase is derived from the linear progress
+     * of the transition animator, which goes from 0 (main view) to 1 (secondary view).
+     */
+    private void updateTransition(float progress, boolean notify){
+        transitionProgress = progress;
+        float moveFraction = timeline.getMoveFraction(progress);
+        setFabPathFraction(moveFraction);
+        if(qualityTier == QualityTier.FULL){
+            setFadeAlpha(getMainView(), 1 - moveFraction);
+        }
+        setVisibility(fab, moveFraction < 1 ? VISIBLE : INVISIBLE);
+
+        float circleLinearFraction = timeline.getCircleLinearFraction(progress);
+        float circleFraction = timeline.getCircleFraction(progress);
+        if(clipsSecondaryView){
+            updateSecondaryViewClip(progress > timeline.getCircleStart(), circleFraction);
+        }else if(progress > timeline.getCircleStart()){
+            if(circularExpandingView.getVisibility() != VISIBLE){
+                prepareForReveal();
+                if(state == State.REVEALING && !transitionReversed && !hasOwnClock() &&
+                        circleLinearFraction < 1 && circularExpandingView.canUseNativeReveal()){
+                    startNativeReveal(circleLinearFraction);
+                }
             }
-        });
-        set.start();
+        }else{
+            setVisibility(circularExpandingView, INVISIBLE);
+        }
+
+        if(metricsRecorder != null){
+            float moveLinearFraction = timeline.getMoveLinearFraction(progress);
+            metricsRecorder.onPhases(moveLinearFraction > 0 && moveLinearFraction < 1,
+                    circleLinearFraction > 0 && circleLinearFraction < 1);
+        }
+
+        if(notify){
+            notifyProgress(progress, moveFraction, circleFraction);
+        }
+
+        if(clipsSecondaryView){
+            return;
+        }
+        if(!circleUsesNativeReveal){
+            circularExpandingView.setExpandFraction(getExpandFraction(circleFraction));
+        }
+        if(qualityTier == QualityTier.FULL){
+            setFadeAlpha(getSecondaryView(), circleFraction);
+        }
     }
 
-    private void moveFABToOriginalLocation(){
-        ObjectAnimator fabAnimator = getFABAnimator();
+    private void notifyProgress(float progress, float moveFraction, float circleFraction){
+        OnRevealProgressListener[] listeners = onRevealProgressListeners;
+        if(listeners.length == 0){
+            return;
+        }
+        boolean circleStarted = progress > timeline.getCircleStart();
+        Phase phase = circleStarted ? Phase.CIRCLE : Phase.MOVE;
+        float phaseFraction = circleStarted ? circleFraction : moveFraction;
+        for(OnRevealProgressListener listener : listeners){
+            listener.onRevealProgress(this, phase, phaseFraction, progress);
+        }
+    }
 
-        setupAnimationParams(fabAnimator);
-        fabAnimator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                super.onAnimationEnd(animation);
-                swapViews();
+    /**
+     * The clip is centered where the circle would be, and only set up once the secondary
+     * view is about to show, by which time a lazily inflated view has been laid out.
+     */
+    private void updateSecondaryViewClip(boolean visible, float circleFraction){
+        View view = getSecondaryView();
+        if(!visible){
+            setVisibility(view, INVISIBLE);
+            return;
+        }
+        if(!revealClip.isStarted()){
+            revealClip.start(view,
+                    circularExpandingView.getLeft() + circularExpandingView.getWidth() / 2f - view.getLeft(),
+                    circularExpandingView.getTop() + circularExpandingView.getHeight() / 2f - view.getTop());
+        }
+        revealClip.setRadius(revealClip.getMaxRadius() * getExpandFraction(circleFraction));
+        setVisibility(view, VISIBLE);
+    }
+
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        if(child == snapshotView){
+            snapshotPaint.setAlpha(Math.round(snapshotAlpha * 255));
+            canvas.drawBitmap(snapshot, child.getLeft(), child.getTop(), snapshotPaint);
+            return false;
+        }
+        if(revealClip.clipsWithPath(child)){
+            int saveCount = canvas.save();
+            revealClip.clip(canvas);
+            boolean result = super.drawChild(canvas, child, drawingTime);
+            canvas.restoreToCount(saveCount);
+            return result;
+        }
+        return super.drawChild(canvas, child, drawingTime);
+    }
+
+    /**
+     * Native reveals cannot be driven frame by frame, so they are started once per phase with
+     * an interpolator that plays the rest of the circle phase from its current position.
+     *
+     * This is the one animator built per transition: ViewAnimationUtils.createCircularReveal
+     * returns an animator that cannot be restarted with new radii, so it cannot be reused like
+     * the transition animator.
+     */
+    private void startNativeReveal(float circleLinearFraction){
+        boolean expanding = state == State.REVEALING;
+        float currentFraction = timeline.getCircleInterpolator().getInterpolation(circleLinearFraction);
+        long remainingDuration = (long) (timeline.getCircleDuration() *
+                (expanding ? 1 - circleLinearFraction : circleLinearFraction));
+
+        nativeRevealInterpolator.set(timeline.getCircleInterpolator(), circleLinearFraction, !expanding);
+        nativeReveal = circularExpandingView.animateExpandFraction(getExpandFraction(currentFraction),
+                expanding ? 1 : CircularExpandingView.MIN_EXPAND_FRACTION);
+        nativeReveal.setInterpolator(nativeRevealInterpolator);
+        nativeReveal.setDuration(remainingDuration);
+        nativeReveal.start();
+        circleUsesNativeReveal = true;
+    }
+
+    private void setVisibility(View view, int visibility){
+        if(view.getVisibility() != visibility){
+            view.setVisibility(visibility);
+        }
+    }
+
+    private float getExpandFraction(float circleFraction){
+        return CircularExpandingView.MIN_EXPAND_FRACTION + (1 - CircularExpandingView.MIN_EXPAND_FRACTION) * circleFraction;
+    }
+
+    /**
+     * Turns the running transition around so that it goes back from its current progress. An
+     * animator that has been started but has not produced its first frame yet is still at
+     * its starting point, so it is cancelled and the transition ends right away.
+     */
+    private void reverseTransition(){
+        transitionReversed = true;
+        if(metricsRecorder != null){
+            metricsRecorder.onReversed();
+        }
+        switchCircleToSoftware();
+        if(springDriver != null){
+            springDriver.retarget(state == State.REVEALING ? 1 : 0);
+        }else if(frameCoordinator != null){
+            reverseCoordinatedTransition();
+        }else if(transitionAnimator.isRunning()){
+            transitionAnimator.reverse();
+        }else{
+            transitionAnimator.cancel();
+        }
+    }
+
+    private void reverseCoordinatedTransition(){
+        if(frameCoordinator.isPending(coordinatedTransition)){
+            frameCoordinator.remove(coordinatedTransition);
+            onTransitionEnd();
+        }else{
+            coordinatedTransition.reverse();
+        }
+    }
+
+    private void switchCircleToSoftware(){
+        if(nativeReveal != null){
+            Animator reveal = nativeReveal;
+            nativeReveal = null;
+            reveal.cancel();
+        }
+        if(circleUsesNativeReveal){
+            circleUsesNativeReveal = false;
+            float circleFraction = timeline.getCircleFraction(transitionAnimator.getAnimatedFraction());
+            circularExpandingView.setExpandFraction(getExpandFraction(circleFraction));
+        }
+    }
+
+    /**
+     * The final progress is applied once more, as a native reveal may have been drawing the
+     * circle, but the progress listeners are only told if the last frame did not reach it.
+     */
+    private void onTransitionEnd(){
+        nativeReveal = null;
+        circleUsesNativeReveal = false;
+        boolean reveal = state == State.REVEALING;
+        float progress = reveal ? 1 : 0;
+        updateTransition(progress, transitionProgress != progress);
+
+        RevealMetricsRecorder recorder = metricsRecorder;
+        long swapStart = recorder != null ? System.nanoTime() : 0;
+        if(reveal == isShowingMainView()){
+            swapViews();
+        }else{
+            finishTransition(reveal ? State.IDLE_SECONDARY : State.IDLE_MAIN);
+        }
+        if(recorder != null && recorder == metricsRecorder){
+            RevealMetrics metrics = recorder.finish(reveal, System.nanoTime() - swapStart);
+            if(adaptiveQuality != null){
+                adaptiveQuality.onTransitionMetrics(metrics);
+            }
+            if(onRevealMetricsListener != null){
+                onRevealMetricsListener.onRevealMetrics(this, metrics);
             }
-        });
+        }
+    }
 
-        fabAnimator.start();
+    private void finishTransition(State state){
+        restoreFadingLayer();
+        revealClip.stop();
+        getMainView().setAlpha(1);
+        getSecondaryView().setAlpha(1);
+        this.state = state;
+    }
+
+    private void setFabPathFraction(float fraction){
+        setFabPosition(fabPath.sample(fraction, fabPosition));
     }
 
     public void setFabPosition(Point point){
-        fab.setX(point.x);
-        fab.setY(point.y);
+        setFabTranslation(point.x - fab.getLeft(), point.y - fab.getTop());
+    }
+
+    private void setFabTranslation(float translationX, float translationY){
+        if(fab.getTranslationX() != translationX){
+            fab.setTranslationX(translationX);
+        }
+        if(fab.getTranslationY() != translationY){
+            fab.setTranslationY(translationY);
+        }
+    }
+
+    private void setupFadingLayer(View view){
+        if(view == layeredView || view == snapshotView){
+            return;
+        }
+        restoreFadingLayer();
+        if(shouldSnapshot(view) && captureSnapshot(view)){
+            return;
+        }
+        if(!shouldUseHardwareLayer(view)){
+            return;
+        }
+        layeredView = view;
+        layeredViewOriginalLayerType = view.getLayerType();
+        view.setLayerType(LAYER_TYPE_HARDWARE, null);
+        if(view.getWindowToken() != null) {
+            view.buildLayer();
+        }
+    }
+
+    /**
+     * A clipped secondary view is not snapshotted, since the clip is set on the view itself.
+     */
+    private boolean shouldSnapshot(View view){
+        if(!snapshotFading || qualityTier != QualityTier.FULL || view.getWidth() == 0 || view.getHeight() == 0){
+            return false;
+        }
+        return view == getMainView() || !shouldClipSecondaryView();
+    }
+
+    private boolean captureSnapshot(View view){
+        Bitmap bitmap = SnapshotPool.getInstance().acquire(view.getWidth(), view.getHeight());
+        if(bitmap == null){
+            return false;
+        }
+        bitmap.eraseColor(0);
+        snapshotCanvas.setBitmap(bitmap);
+        view.draw(snapshotCanvas);
+        snapshotCanvas.setBitmap(null);
+        snapshot = bitmap;
+        snapshotView = view;
+        snapshotAlpha = view.getAlpha();
+        return true;
+    }
+
+    private void setFadeAlpha(View view, float alpha){
+        if(view != snapshotView){
+            view.setAlpha(alpha);
+        }else if(snapshotAlpha != alpha){
+            snapshotAlpha = alpha;
+            invalidate(view.getLeft(), view.getTop(), view.getRight(), view.getBottom());
+        }
+    }
+
+    private boolean shouldUseHardwareLayer(View view){
+        if(view.getLayerType() == LAYER_TYPE_HARDWARE || qualityTier != QualityTier.FULL){
+            return false;
+        }
+        switch (layerPolicy){
+            case HARDWARE:
+                return true;
+            case AUTO:
+                return isHardwareAccelerated() && countViews(view, AUTO_LAYER_MIN_VIEWS) >= AUTO_LAYER_MIN_VIEWS;
+            default:
+                return false;
+        }
     }
 
+    private int countViews(View view, int limit){
+        int count = 1;
+        if(view instanceof ViewGroup){
+            ViewGroup group = (ViewGroup) view;
+            for(int i = 0; i < group.getChildCount() && count < limit; i++){
+                count += countViews(group.getChildAt(i), limit - count);
+            }
+        }
+        return count;
+    }
+
+    private void restoreFadingLayer(){
+        if(layeredView != null){
+            layeredView.setLayerType(layeredViewOriginalLayerType, null);
+            layeredView = null;
+        }
+        if(snapshotView != null){
+            SnapshotPool.getInstance().release(snapshot);
+            snapshot = null;
+            snapshotView = null;
+            invalidate();
+        }
+    }
+
+    /**
+     * The hidden view is made {@link #INVISIBLE} rather than {@link #GONE}, so it keeps its
+     * bounds and swapping does not need a layout pass, see {@link #onMeasure}.
+     */
     private void swapViews() {
+        if(!isSecondaryViewInflated()){
+            inflateSecondaryView();
+        }
         if(isShowingMainView()){
-            getMainView().setVisibility(GONE);
+            getMainView().setVisibility(INVISIBLE);
             getMainView().setAlpha(1);
             getSecondaryView().setVisibility(VISIBLE);
-            circularExpandingView.setVisibility(VISIBLE);
+            showExpandedCircle();
         }else{
             getMainView().setVisibility(VISIBLE);
-            getSecondaryView().setVisibility(GONE);
+            getSecondaryView().setVisibility(INVISIBLE);
             getSecondaryView().setAlpha(1);
-            circularExpandingView.setVisibility(View.GONE);
+            circularExpandingView.setVisibility(View.INVISIBLE);
+        }
+        finishTransition(isShowingMainView() ? State.IDLE_MAIN : State.IDLE_SECONDARY);
+        requestLayoutIfWrapsContent();
+        if(childStagger != null){
+            childStagger.start(isShowingMainView() ? getMainView() : getSecondaryView());
         }
         notifyListener();
     }
@@ -297,6 +1640,65 @@ public class FABRevealLayout extends RelativeLayout {
         }
     }
 
+    private boolean isSecondaryViewInflated(){
+        return !(getSecondaryView() instanceof ViewStub);
+    }
+
+    private void prepareSecondaryView(){
+        if(isSecondaryViewInflated()){
+            return;
+        }
+        if(inflatesSecondaryViewInBackground()){
+            startBackgroundInflation();
+        }else{
+            inflateSecondaryView();
+        }
+    }
+
+    private boolean inflatesSecondaryViewInBackground(){
+        return asyncSecondaryViewInflation && revealMode != RevealMode.CLIP;
+    }
+
+    private void startBackgroundInflation(){
+        if(secondaryViewInflater == null){
+            ViewStub stub = (ViewStub) getSecondaryView();
+            secondaryViewInflater = new BackgroundInflater(stub.getLayoutResource(), this, secondaryViewInflaterCallback);
+            secondaryViewInflater.start();
+        }
+    }
+
+    private void inflateSecondaryView(){
+        if(secondaryViewInflater != null){
+            secondaryViewInflater.cancel();
+            secondaryViewInflater = null;
+        }
+        ViewStub stub = (ViewStub) getSecondaryView();
+        replaceSecondaryView(LayoutInflater.from(getContext()).inflate(stub.getLayoutResource(), this, false));
+    }
+
+    /**
+     * Puts the inflated view in place of the stub. A stub declared in XML passes its layout
+     * params on to the view, like {@link ViewStub#inflate()} does, while the view of a layout
+     * resource keeps the layout params of its root tag.
+     */
+    private void replaceSecondaryView(View view){
+        ViewStub stub = (ViewStub) getSecondaryView();
+        if(stub.getInflatedId() != NO_ID){
+            view.setId(stub.getInflatedId());
+        }
+        ViewGroup.LayoutParams params = stub == declaredSecondaryViewStub ? view.getLayoutParams() : stub.getLayoutParams();
+        int index = indexOfChild(stub);
+        view.setVisibility(INVISIBLE);
+
+        replacingSecondaryView = true;
+        removeViewInLayout(stub);
+        addView(view, index, params);
+        replacingSecondaryView = false;
+
+        declaredSecondaryViewStub = null;
+        setupChildViewMargin(view);
+    }
+
     private View getSecondaryView() {
         return childViews.get(1);
     }
@@ -315,4 +1717,38 @@ public class FABRevealLayout extends RelativeLayout {
         super.setLayoutParams(params);
     }
 
+    static class SavedState extends BaseSavedState {
+        boolean revealed;
+        float transitionProgress;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            revealed = in.readInt() != 0;
+            transitionProgress = in.readFloat();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(revealed ? 1 : 0);
+            out.writeFloat(transitionProgress);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
 }
@@ -0,0 +1,26 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+public interface OnRevealProgressListener {
+    /**
+     * Called on every frame of a transition, from the frame loop of the layout, so it must
+     * not allocate or do heavy work. The progress goes from 0 on the main view to 1 on the
+     * secondary view. The phase is the last one that has started, and its fraction is the
+     * eased fraction of that phase.
+     */
+    void onRevealProgress(FABRevealLayout fabRevealLayout, FABRevealLayout.Phase phase, float phaseFraction, float progress);
+}
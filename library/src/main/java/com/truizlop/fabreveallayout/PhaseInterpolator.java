@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.animation.TimeInterpolator;
+import android.view.animation.Interpolator;
+
+/**
+ * Plays the remainder of another interpolator, from a given linear fraction up to 1 or down
+ * to 0, rescaled to the 0..1 range. It lets an animator that can only run forwards, such as
+ * a native circular reveal, follow a phase of a longer timeline from wherever it is.
+ */
+class PhaseInterpolator implements Interpolator {
+
+    private TimeInterpolator interpolator;
+    private float from = 0;
+    private boolean backwards = false;
+
+    void set(TimeInterpolator interpolator, float from, boolean backwards) {
+        this.interpolator = interpolator;
+        this.from = from;
+        this.backwards = backwards;
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        float start = interpolator.getInterpolation(from);
+        if(backwards){
+            float position = from * (1 - input);
+            return start > 0 ? (start - interpolator.getInterpolation(position)) / start : 1;
+        }else{
+            float position = from + (1 - from) * input;
+            return start < 1 ? (interpolator.getInterpolation(position) - start) / (1 - start) : 1;
+        }
+    }
+}
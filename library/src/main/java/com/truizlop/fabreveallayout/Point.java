@@ -34,4 +34,17 @@ public class Point {
         this.x = x;
         this.y = y;
     }
+
+    public void set(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
 }
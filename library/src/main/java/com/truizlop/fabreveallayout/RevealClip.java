@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.annotation.TargetApi;
+import android.graphics.Canvas;
+import android.graphics.Outline;
+import android.graphics.Path;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewOutlineProvider;
+
+/**
+ * Clips a view to a circle of changing radius. On API 21 and above the circle is the outline
+ * of the view, so changing it does not redraw the view. Older versions clip the canvas of
+ * the parent with a path while the view is drawn, see {@link #clip(Canvas)}.
+ */
+class RevealClip {
+
+    private final Path path = new Path();
+    private View view = null;
+    private float centerX;
+    private float centerY;
+    private float radius;
+    private CircleOutlineProvider outlineProvider = null;
+    private ViewOutlineProvider originalOutlineProvider = null;
+    private boolean originalClipToOutline = false;
+
+    /**
+     * Whether a view can be clipped with a path in the current window. Hardware accelerated
+     * canvases only support path clipping from API 18.
+     */
+    static boolean isSupported(View view) {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2 || !view.isHardwareAccelerated();
+    }
+
+    /**
+     * @param centerX horizontal center of the circle, relative to the view
+     * @param centerY vertical center of the circle, relative to the view
+     */
+    void start(View view, float centerX, float centerY) {
+        stop();
+        this.view = view;
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.radius = 0;
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP){
+            startOutlineClip();
+        }
+    }
+
+    void setRadius(float radius) {
+        if(view == null || this.radius == radius){
+            return;
+        }
+        this.radius = radius;
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP){
+            view.invalidateOutline();
+        }else{
+            path.reset();
+            path.addCircle(view.getLeft() + centerX, view.getTop() + centerY, radius, Path.Direction.CW);
+            ((View) view.getParent()).invalidate();
+        }
+    }
+
+    boolean isStarted() {
+        return view != null;
+    }
+
+    float getMaxRadius() {
+        return view != null ? CircleGeometry.maxRadius(centerX, centerY, view.getWidth(), view.getHeight()) : 0;
+    }
+
+    void stop() {
+        if(view == null){
+            return;
+        }
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP){
+            stopOutlineClip();
+        }else{
+            ((View) view.getParent()).invalidate();
+        }
+        view = null;
+    }
+
+    /**
+     * Whether the given child has to be drawn through {@link #clip(Canvas)}.
+     */
+    boolean clipsWithPath(View child) {
+        return child == view && Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP;
+    }
+
+    void clip(Canvas canvas) {
+        canvas.clipPath(path);
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void startOutlineClip() {
+        if(outlineProvider == null){
+            outlineProvider = new CircleOutlineProvider();
+        }
+        originalOutlineProvider = view.getOutlineProvider();
+        originalClipToOutline = view.getClipToOutline();
+        view.setOutlineProvider(outlineProvider);
+        view.setClipToOutline(true);
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void stopOutlineClip() {
+        view.setOutlineProvider(originalOutlineProvider);
+        view.setClipToOutline(originalClipToOutline);
+        originalOutlineProvider = null;
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private class CircleOutlineProvider extends ViewOutlineProvider {
+        @Override
+        public void getOutline(View view, Outline outline) {
+            int r = (int) Math.ceil(radius);
+            int cx = (int) centerX;
+            int cy = (int) centerY;
+            outline.setRoundRect(cx - r, cy - r, cx + r, cy + r, r);
+        }
+    }
+}
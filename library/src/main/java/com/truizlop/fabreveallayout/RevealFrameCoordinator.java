@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/**
+ * Advances the transitions of many {@link FABRevealLayout}s from a single {@link Choreographer}
+ * callback, so all of them update their views in one pass before the frame is drawn. Starting
+ * a transition only queues it: each frame starts at most {@link #setMaxStartsPerFrame(int)}
+ * queued transitions, and none once the frame has used up its work budget, so starting many
+ * transitions at once staggers them instead of dropping a block of frames.
+ *
+ * Must only be used from the main thread. Requires API 16.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+public final class RevealFrameCoordinator implements Choreographer.FrameCallback {
+
+    public static final int DEFAULT_MAX_STARTS_PER_FRAME = 4;
+    public static final long DEFAULT_FRAME_BUDGET = 4000000;
+
+    private static RevealFrameCoordinator instance = null;
+
+    private final ArrayList<CoordinatedTransition> activeTransitions = new ArrayList<>();
+    private final ArrayDeque<CoordinatedTransition> pendingTransitions = new ArrayDeque<>();
+    private final ArrayList<CoordinatedTransition> frameTransitions = new ArrayList<>();
+    private final ArrayList<CoordinatedTransition> finishedTransitions = new ArrayList<>();
+    private int maxStartsPerFrame = DEFAULT_MAX_STARTS_PER_FRAME;
+    private long frameBudget = DEFAULT_FRAME_BUDGET;
+    private boolean frameScheduled = false;
+
+    public static RevealFrameCoordinator getInstance() {
+        if(instance == null){
+            instance = new RevealFrameCoordinator();
+        }
+        return instance;
+    }
+
+    RevealFrameCoordinator() {
+    }
+
+    /**
+     * Sets how many queued transitions can start in a single frame.
+     */
+    public void setMaxStartsPerFrame(int maxStartsPerFrame) {
+        if(maxStartsPerFrame < 1){
+            throw new IllegalArgumentException("At least one transition has to start per frame");
+        }
+        this.maxStartsPerFrame = maxStartsPerFrame;
+    }
+
+    /**
+     * Sets the time, in nanoseconds, that the transitions of a frame can take before no more
+     * queued transitions are started in that frame. One is always started, so the queue
+     * keeps moving.
+     */
+    public void setFrameBudget(long frameBudget) {
+        this.frameBudget = frameBudget;
+    }
+
+    void start(CoordinatedTransition transition) {
+        remove(transition);
+        pendingTransitions.add(transition);
+        scheduleFrame();
+    }
+
+    boolean isPending(CoordinatedTransition transition) {
+        return pendingTransitions.contains(transition);
+    }
+
+    void remove(CoordinatedTransition transition) {
+        activeTransitions.remove(transition);
+        pendingTransitions.remove(transition);
+        finishedTransitions.remove(transition);
+    }
+
+    int getActiveCount() {
+        return activeTransitions.size();
+    }
+
+    int getPendingCount() {
+        return pendingTransitions.size();
+    }
+
+    private void scheduleFrame() {
+        if(!frameScheduled){
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * The listeners of a transition can start or cancel other transitions, so the pass goes
+     * over the transitions that were active when the frame began and skips those cancelled
+     * meanwhile. Finished transitions are only told so after the pass, unless they have been
+     * cancelled or restarted by then.
+     *
+     * Every transition updates its views within this callback, before the traversal of the
+     * frame, so their invalidations are all handled by that one traversal.
+     */
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        long passStart = System.nanoTime();
+
+        for(int i = 0; i < activeTransitions.size(); i++){
+            frameTransitions.add(activeTransitions.get(i));
+        }
+        for(int i = 0; i < frameTransitions.size(); i++){
+            CoordinatedTransition transition = frameTransitions.get(i);
+            if(activeTransitions.contains(transition) && transition.advance(frameTimeNanos) &&
+                    activeTransitions.remove(transition)){
+                finishedTransitions.add(transition);
+            }
+        }
+        frameTransitions.clear();
+
+        int starts = 0;
+        while(!pendingTransitions.isEmpty() && starts < maxStartsPerFrame &&
+                (starts == 0 || System.nanoTime() - passStart < frameBudget)){
+            CoordinatedTransition transition = pendingTransitions.poll();
+            activeTransitions.add(transition);
+            transition.advance(frameTimeNanos);
+            starts++;
+        }
+
+        while(!finishedTransitions.isEmpty()){
+            finishedTransitions.remove(0).finish();
+        }
+
+        if(!activeTransitions.isEmpty() || !pendingTransitions.isEmpty()){
+            scheduleFrame();
+        }
+    }
+}
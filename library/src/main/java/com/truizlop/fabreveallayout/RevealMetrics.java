@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+/**
+ * Frame timing of a single transition, as measured with {@link android.view.Choreographer}.
+ * All times are in nanoseconds.
+ */
+public class RevealMetrics {
+
+    public static final int MAX_RECORDED_FRAMES = 256;
+    private static final float LATE_FRAME_THRESHOLD = 1.5f;
+
+    private final long[] frameIntervals = new long[MAX_RECORDED_FRAMES];
+    private long refreshInterval;
+    private boolean reveal;
+    private boolean reversed;
+    private int frameCount;
+    private int lateFrames;
+    private int droppedFrames;
+    private long totalTime;
+    private long fabMoveTime;
+    private long circleTime;
+    private long swapTime;
+    private long inputLatency;
+    private FABRevealLayout.QualityTier qualityTier = FABRevealLayout.QualityTier.FULL;
+
+    void reset(long refreshInterval) {
+        this.refreshInterval = refreshInterval;
+        reveal = false;
+        reversed = false;
+        frameCount = 0;
+        lateFrames = 0;
+        droppedFrames = 0;
+        totalTime = 0;
+        fabMoveTime = 0;
+        circleTime = 0;
+        swapTime = 0;
+        inputLatency = -1;
+    }
+
+    void setQualityTier(FABRevealLayout.QualityTier qualityTier) {
+        this.qualityTier = qualityTier;
+    }
+
+    void setInputLatency(long inputLatency) {
+        this.inputLatency = inputLatency;
+    }
+
+    void addFrame(long interval, boolean fabMoving, boolean circleAnimating) {
+        if(frameCount > 0){
+            if(frameCount - 1 < MAX_RECORDED_FRAMES){
+                frameIntervals[frameCount - 1] = interval;
+            }
+            if(interval > refreshInterval * LATE_FRAME_THRESHOLD){
+                lateFrames++;
+                droppedFrames += Math.round((float) interval / refreshInterval) - 1;
+            }
+            if(fabMoving){
+                fabMoveTime += interval;
+            }
+            if(circleAnimating){
+                circleTime += interval;
+            }
+        }
+        frameCount++;
+    }
+
+    void finish(boolean reveal, boolean reversed, long totalTime, long swapTime) {
+        this.reveal = reveal;
+        this.reversed = reversed;
+        this.totalTime = totalTime;
+        this.swapTime = swapTime;
+    }
+
+    /**
+     * Whether the transition ended on the secondary view.
+     */
+    public boolean isReveal() {
+        return reveal;
+    }
+
+    /**
+     * Whether the transition was reversed while it was running.
+     */
+    public boolean isReversed() {
+        return reversed;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Number of intervals between frames available through {@link #getFrameInterval(int)}.
+     */
+    public int getFrameIntervalCount() {
+        return Math.max(0, Math.min(frameCount - 1, MAX_RECORDED_FRAMES));
+    }
+
+    public long getFrameInterval(int index) {
+        if(index < 0 || index >= getFrameIntervalCount()){
+            throw new IndexOutOfBoundsException("Invalid frame interval index " + index);
+        }
+        return frameIntervals[index];
+    }
+
+    public long getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    /**
+     * Frames that took more than one and a half refresh intervals.
+     */
+    public int getLateFrames() {
+        return lateFrames;
+    }
+
+    /**
+     * Refresh intervals in which no frame was produced.
+     */
+    public int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    public long getTotalTime() {
+        return totalTime;
+    }
+
+    public long getFabMoveTime() {
+        return fabMoveTime;
+    }
+
+    public long getCircleTime() {
+        return circleTime;
+    }
+
+    public long getSwapTime() {
+        return swapTime;
+    }
+
+    /**
+     * Time from the touch event on the FAB that started the transition to the first frame
+     * of the transition, or -1 when the transition was not started by touching the FAB.
+     */
+    public long getInputLatency() {
+        return inputLatency;
+    }
+
+    /**
+     * Quality tier the transition was played with.
+     */
+    public FABRevealLayout.QualityTier getQualityTier() {
+        return qualityTier;
+    }
+}
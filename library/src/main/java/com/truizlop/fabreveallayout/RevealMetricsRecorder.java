@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.os.Build;
+import android.view.Choreographer;
+import android.view.WindowManager;
+
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+class RevealMetricsRecorder implements Choreographer.FrameCallback {
+
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private final RevealMetrics metrics = new RevealMetrics();
+    private final long refreshInterval;
+    private boolean recording = false;
+    private boolean reversed = false;
+    private boolean fabMoving = false;
+    private boolean circleAnimating = false;
+    private long startTime;
+    private long lastFrameTime;
+    private long inputEventTime;
+
+    RevealMetricsRecorder(Context context) {
+        WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        float refreshRate = windowManager.getDefaultDisplay().getRefreshRate();
+        refreshInterval = (long) (NANOS_PER_SECOND / (refreshRate > 0 ? refreshRate : 60));
+    }
+
+    /**
+     * @param inputEventTime {@link android.os.SystemClock#uptimeMillis()} time of the input
+     *                       event that started the transition, or 0 if there was none
+     */
+    void start(long inputEventTime, FABRevealLayout.QualityTier qualityTier) {
+        stop();
+        this.inputEventTime = inputEventTime;
+        metrics.reset(refreshInterval);
+        metrics.setQualityTier(qualityTier);
+        recording = true;
+        reversed = false;
+        fabMoving = false;
+        circleAnimating = false;
+        startTime = System.nanoTime();
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    void onReversed() {
+        reversed = true;
+    }
+
+    /**
+     * Tells which phases were updated in the current frame, so that the time until the next
+     * frame is attributed to them.
+     */
+    void onPhases(boolean fabMoving, boolean circleAnimating) {
+        this.fabMoving = fabMoving;
+        this.circleAnimating = circleAnimating;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if(!recording){
+            return;
+        }
+        if(metrics.getFrameCount() == 0 && inputEventTime > 0){
+            metrics.setInputLatency(frameTimeNanos - inputEventTime * NANOS_PER_MILLI);
+        }
+        long interval = metrics.getFrameCount() > 0 ? frameTimeNanos - lastFrameTime : 0;
+        metrics.addFrame(interval, fabMoving, circleAnimating);
+        lastFrameTime = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    RevealMetrics finish(boolean reveal, long swapTime) {
+        stop();
+        metrics.finish(reveal, reversed, System.nanoTime() - startTime, swapTime);
+        return metrics;
+    }
+
+    void stop() {
+        if(recording){
+            recording = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+}
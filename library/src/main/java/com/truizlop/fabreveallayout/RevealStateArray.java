@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.util.SparseBooleanArray;
+
+/**
+ * Keeps the revealed state of the {@link FABRevealLayout}s of a list, by adapter position,
+ * so that recycled items are bound to the right state without animating. Only revealed
+ * positions are stored.
+ */
+public class RevealStateArray {
+
+    private final SparseBooleanArray revealedPositions = new SparseBooleanArray();
+
+    public boolean isRevealed(int position) {
+        return revealedPositions.get(position);
+    }
+
+    public void setRevealed(int position, boolean revealed) {
+        if(revealed){
+            revealedPositions.put(position, true);
+        }else{
+            revealedPositions.delete(position);
+        }
+    }
+
+    /**
+     * Shows the stored state of the position on the layout, typically from
+     * {@code onBindViewHolder}.
+     */
+    public void bind(FABRevealLayout layout, int position) {
+        layout.setRevealed(isRevealed(position));
+    }
+
+    /**
+     * Stores the state the layout shows, or is moving towards, typically from
+     * {@code onViewRecycled} or the {@link OnRevealChangeListener}.
+     */
+    public void save(FABRevealLayout layout, int position) {
+        setRevealed(position, layout.isRevealed());
+    }
+
+    public void clear() {
+        revealedPositions.clear();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.animation.TimeInterpolator;
+
+/**
+ * Maps the linear progress of a whole transition, from 0 (main view) to 1 (secondary view),
+ * onto its two phases: the FAB moving along its path and the circle expanding. The circle
+ * phase can start before the FAB phase ends, shortening the whole transition. A phase
+ * without duration jumps to its end: the move as soon as the transition leaves the main
+ * view, the circle once it reaches the secondary view.
+ */
+class RevealTimeline {
+
+    private final TimeInterpolator moveInterpolator;
+    private final TimeInterpolator circleInterpolator;
+    private long moveDuration;
+    private long circleDuration;
+    private float phaseOverlap = 0;
+
+    private long totalDuration;
+    private float moveEnd;
+    private float circleStart;
+
+    RevealTimeline(long moveDuration, TimeInterpolator moveInterpolator,
+                   long circleDuration, TimeInterpolator circleInterpolator) {
+        checkDuration(moveDuration);
+        checkDuration(circleDuration);
+        this.moveDuration = moveDuration;
+        this.moveInterpolator = moveInterpolator;
+        this.circleDuration = circleDuration;
+        this.circleInterpolator = circleInterpolator;
+        update();
+    }
+
+    /**
+     * @param phaseOverlap fraction of the circle phase that runs while the FAB is still
+     *                     moving, from 0 (one after the other) to 1
+     */
+    void setPhaseOverlap(float phaseOverlap) {
+        this.phaseOverlap = phaseOverlap;
+        update();
+    }
+
+    float getPhaseOverlap() {
+        return phaseOverlap;
+    }
+
+    void setDurations(long moveDuration, long circleDuration) {
+        checkDuration(moveDuration);
+        checkDuration(circleDuration);
+        this.moveDuration = moveDuration;
+        this.circleDuration = circleDuration;
+        update();
+    }
+
+    private void update() {
+        long overlap = (long) (Math.min(moveDuration, circleDuration) * phaseOverlap);
+        totalDuration = moveDuration + circleDuration - overlap;
+        if(totalDuration == 0){
+            moveEnd = 0;
+            circleStart = 1;
+            return;
+        }
+        moveEnd = (float) moveDuration / totalDuration;
+        circleStart = (float) (moveDuration - overlap) / totalDuration;
+    }
+
+    static void checkDuration(long duration) {
+        if(duration < 0){
+            throw new IllegalArgumentException("Durations cannot be negative: " + duration);
+        }
+    }
+
+    long getTotalDuration() {
+        return totalDuration;
+    }
+
+    long getCircleDuration() {
+        return circleDuration;
+    }
+
+    TimeInterpolator getCircleInterpolator() {
+        return circleInterpolator;
+    }
+
+    float getCircleStart() {
+        return circleStart;
+    }
+
+    float getMoveFraction(float progress) {
+        return moveInterpolator.getInterpolation(getMoveLinearFraction(progress));
+    }
+
+    float getMoveLinearFraction(float progress) {
+        if(moveEnd <= 0){
+            return progress > 0 ? 1 : 0;
+        }
+        return clamp(progress / moveEnd);
+    }
+
+    float getCircleFraction(float progress) {
+        return circleInterpolator.getInterpolation(getCircleLinearFraction(progress));
+    }
+
+    float getCircleLinearFraction(float progress) {
+        if(circleStart >= 1){
+            return progress >= 1 ? 1 : 0;
+        }
+        return clamp((progress - circleStart) / (1 - circleStart));
+    }
+
+    private static float clamp(float fraction) {
+        return Math.min(Math.max(fraction, 0), 1);
+    }
+}
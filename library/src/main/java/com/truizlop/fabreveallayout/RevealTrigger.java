@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.view.View;
+
+/**
+ * Picks the child of a {@link FABRevealLayout} that starts the reveal when clicked and moves
+ * to the center of the secondary view, and the color of the circle that grows from it.
+ *
+ * Implementations named through the {@code fabReveal_trigger} attribute need a public
+ * constructor with no arguments.
+ */
+public interface RevealTrigger {
+
+    boolean isTrigger(View child);
+
+    int getColor(View trigger);
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+
+import java.util.ArrayList;
+
+/**
+ * Bitmaps for the snapshots that {@link FABRevealLayout}s fade instead of their live views,
+ * shared by all of them. A bitmap released by one layout is reused by the next one of the
+ * same size. The bitmaps allocated never take more than the byte budget, and the unused ones
+ * are freed when the system asks the app to trim its memory.
+ *
+ * Must only be used from the main thread.
+ */
+public final class SnapshotPool implements ComponentCallbacks2 {
+
+    private static final int BYTES_PER_PIXEL = 4;
+    private static final int DEFAULT_MAX_MEMORY_SHARE = 16;
+
+    private static SnapshotPool instance = null;
+
+    private final ArrayList<Bitmap> freeBitmaps = new ArrayList<>();
+    private long maxBytes;
+    private long allocatedBytes = 0;
+    private boolean registered = false;
+
+    /**
+     * The default budget is a sixteenth of the memory the app can use.
+     */
+    public static SnapshotPool getInstance() {
+        if(instance == null){
+            instance = new SnapshotPool(Runtime.getRuntime().maxMemory() / DEFAULT_MAX_MEMORY_SHARE);
+        }
+        return instance;
+    }
+
+    SnapshotPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Sets how many bytes the bitmaps of the pool can take, both those in use and those
+     * waiting to be reused. Layouts that cannot get a bitmap fade their live views.
+     */
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        while(allocatedBytes > maxBytes && !freeBitmaps.isEmpty()){
+            recycle(freeBitmaps.remove(0));
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    void register(Context context) {
+        if(!registered){
+            context.getApplicationContext().registerComponentCallbacks(this);
+            registered = true;
+        }
+    }
+
+    /**
+     * @return a bitmap of the given size, cleared or not, or null when it does not fit the
+     * budget
+     */
+    Bitmap acquire(int width, int height) {
+        for(int i = 0; i < freeBitmaps.size(); i++){
+            Bitmap bitmap = freeBitmaps.get(i);
+            if(bitmap.getWidth() == width && bitmap.getHeight() == height){
+                freeBitmaps.remove(i);
+                return bitmap;
+            }
+        }
+        long bytes = (long) width * height * BYTES_PER_PIXEL;
+        while(allocatedBytes + bytes > maxBytes && !freeBitmaps.isEmpty()){
+            recycle(freeBitmaps.remove(0));
+        }
+        if(allocatedBytes + bytes > maxBytes){
+            return null;
+        }
+        try {
+            Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            allocatedBytes += bytes;
+            return bitmap;
+        } catch (OutOfMemoryError e) {
+            return null;
+        }
+    }
+
+    void release(Bitmap bitmap) {
+        if(allocatedBytes > maxBytes){
+            recycle(bitmap);
+        }else{
+            freeBitmaps.add(bitmap);
+        }
+    }
+
+    /**
+     * Frees the bitmaps that are not in use.
+     */
+    public void clear() {
+        for(int i = 0; i < freeBitmaps.size(); i++){
+            recycle(freeBitmaps.get(i));
+        }
+        freeBitmaps.clear();
+    }
+
+    private void recycle(Bitmap bitmap) {
+        allocatedBytes -= (long) bitmap.getWidth() * bitmap.getHeight() * BYTES_PER_PIXEL;
+        bitmap.recycle();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if(level >= TRIM_MEMORY_RUNNING_LOW){
+            clear();
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        clear();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+/**
+ * Drives the progress of a transition with a {@link CriticalSpring}, one step per frame.
+ * The progress is clamped between 0 and 1 when it is reported, and the velocity is dropped
+ * when it hits either end, so a retargeted transition never overshoots its views.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+class SpringProgressDriver implements Choreographer.FrameCallback {
+
+    interface Listener {
+        void onProgress(float progress);
+
+        void onSettled();
+    }
+
+    private static final float NANOS_PER_SECOND = 1000000000f;
+
+    private final CriticalSpring spring = new CriticalSpring();
+    private final Listener listener;
+    private boolean running = false;
+    private long lastFrameTime = 0;
+
+    SpringProgressDriver(Listener listener) {
+        this.listener = listener;
+    }
+
+    void setSettleDuration(long durationMillis) {
+        spring.setSettleDuration(durationMillis);
+    }
+
+    void animate(float from, float to) {
+        spring.snapTo(from);
+        retarget(to);
+    }
+
+    void retarget(float to) {
+        spring.setTarget(to);
+        if(!running){
+            running = true;
+            lastFrameTime = 0;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    void cancel() {
+        if(running){
+            running = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if(!running){
+            return;
+        }
+        boolean settled = lastFrameTime != 0 && spring.advance((frameTimeNanos - lastFrameTime) / NANOS_PER_SECOND);
+        lastFrameTime = frameTimeNanos;
+
+        float progress = spring.getPosition();
+        if(progress < 0 || progress > 1){
+            float target = spring.getTarget();
+            progress = progress < 0 ? 0 : 1;
+            spring.snapTo(progress);
+            spring.setTarget(target);
+        }
+
+        if(settled){
+            running = false;
+            listener.onSettled();
+        }else{
+            listener.onProgress(progress);
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.animation.TimeInterpolator;
+
+/**
+ * Timing of a staggered entrance: every item runs the same eased animation, each one
+ * starting a fixed delay after the previous one, all measured from a single clock.
+ */
+final class StaggerSchedule {
+
+    private long duration;
+    private long delay;
+    private TimeInterpolator interpolator;
+
+    StaggerSchedule(long duration, long delay, TimeInterpolator interpolator) {
+        this.duration = duration;
+        this.delay = delay;
+        this.interpolator = interpolator;
+    }
+
+    void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    long getDuration() {
+        return duration;
+    }
+
+    void setDelay(long delay) {
+        this.delay = delay;
+    }
+
+    long getDelay() {
+        return delay;
+    }
+
+    void setInterpolator(TimeInterpolator interpolator) {
+        this.interpolator = interpolator;
+    }
+
+    long getTotalDuration(int count) {
+        return count > 0 ? duration + delay * (count - 1) : 0;
+    }
+
+    /**
+     * Eased fraction of the item at the given index once the clock has run for the given
+     * time, in milliseconds.
+     */
+    float getFraction(int index, long playTime) {
+        long elapsed = playTime - delay * index;
+        if(elapsed <= 0){
+            return interpolator.getInterpolation(0);
+        }
+        if(elapsed >= duration){
+            return interpolator.getInterpolation(1);
+        }
+        return interpolator.getInterpolation((float) elapsed / duration);
+    }
+}
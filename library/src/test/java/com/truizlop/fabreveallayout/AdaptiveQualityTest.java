@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveQualityTest {
+
+    private static final long REFRESH_INTERVAL = 16666667;
+
+    @Test
+    public void fullQualityOnRegularDevices() {
+        assertEquals(FABRevealLayout.QualityTier.FULL, new AdaptiveQuality().choose(false, 1));
+    }
+
+    @Test
+    public void reducedQualityOnLowRamDevicesAndFasterAnimations() {
+        AdaptiveQuality quality = new AdaptiveQuality();
+
+        assertEquals(FABRevealLayout.QualityTier.REDUCED, quality.choose(true, 1));
+        assertEquals(FABRevealLayout.QualityTier.REDUCED, quality.choose(false, 0.5f));
+    }
+
+    @Test
+    public void minimalQualityWhenAnimationsAreOff() {
+        assertEquals(FABRevealLayout.QualityTier.MINIMAL, new AdaptiveQuality().choose(false, 0));
+    }
+
+    @Test
+    public void jankyTransitionsLowerTheQuality() {
+        AdaptiveQuality quality = new AdaptiveQuality();
+
+        quality.onTransitionMetrics(metrics(10, 1));
+        assertEquals(FABRevealLayout.QualityTier.FULL, quality.choose(false, 1));
+
+        quality.onTransitionMetrics(metrics(10, 5));
+        assertEquals(FABRevealLayout.QualityTier.REDUCED, quality.choose(false, 1));
+
+        quality.onTransitionMetrics(metrics(10, 5));
+        quality.onTransitionMetrics(metrics(10, 5));
+        assertEquals(FABRevealLayout.QualityTier.MINIMAL, quality.choose(false, 1));
+    }
+
+    @Test
+    public void smoothTransitionsRaiseTheQualityOneStepAtATime() {
+        AdaptiveQuality quality = new AdaptiveQuality();
+        quality.onTransitionMetrics(metrics(10, 5));
+        quality.onTransitionMetrics(metrics(10, 5));
+
+        smoothTransitions(quality, AdaptiveQuality.RECOVERY_TRANSITIONS - 1);
+        assertEquals(FABRevealLayout.QualityTier.MINIMAL, quality.choose(false, 1));
+
+        smoothTransitions(quality, 1);
+        assertEquals(FABRevealLayout.QualityTier.REDUCED, quality.choose(false, 1));
+
+        smoothTransitions(quality, AdaptiveQuality.RECOVERY_TRANSITIONS);
+        assertEquals(FABRevealLayout.QualityTier.FULL, quality.choose(false, 1));
+    }
+
+    @Test
+    public void jankyTransitionRestartsTheRecovery() {
+        AdaptiveQuality quality = new AdaptiveQuality();
+        quality.onTransitionMetrics(metrics(10, 5));
+
+        smoothTransitions(quality, AdaptiveQuality.RECOVERY_TRANSITIONS - 1);
+        quality.onTransitionMetrics(metrics(10, 5));
+        smoothTransitions(quality, AdaptiveQuality.RECOVERY_TRANSITIONS - 1);
+        assertEquals(FABRevealLayout.QualityTier.MINIMAL, quality.choose(false, 1));
+
+        smoothTransitions(quality, 1);
+        assertEquals(FABRevealLayout.QualityTier.REDUCED, quality.choose(false, 1));
+    }
+
+    @Test
+    public void smoothTransitionsDoNotRaiseAboveTheDeviceTier() {
+        AdaptiveQuality quality = new AdaptiveQuality();
+        quality.onTransitionMetrics(metrics(10, 5));
+
+        smoothTransitions(quality, AdaptiveQuality.RECOVERY_TRANSITIONS);
+
+        assertEquals(FABRevealLayout.QualityTier.FULL, quality.choose(false, 1));
+        assertEquals(FABRevealLayout.QualityTier.REDUCED, quality.choose(true, 1));
+    }
+
+    @Test
+    public void lowerTiersShortenThePhases() {
+        assertEquals(500, AdaptiveQuality.scaleMoveDuration(500, FABRevealLayout.QualityTier.FULL));
+        assertEquals(375, AdaptiveQuality.scaleMoveDuration(500, FABRevealLayout.QualityTier.REDUCED));
+        assertEquals(0, AdaptiveQuality.scaleCircleDuration(300, FABRevealLayout.QualityTier.MINIMAL));
+    }
+
+    private void smoothTransitions(AdaptiveQuality quality, int count) {
+        for (int i = 0; i < count; i++) {
+            quality.onTransitionMetrics(metrics(10, 1));
+        }
+    }
+
+    private RevealMetrics metrics(int frames, int lateFrames) {
+        RevealMetrics metrics = new RevealMetrics();
+        metrics.reset(REFRESH_INTERVAL);
+        metrics.addFrame(0, true, false);
+        for (int i = 1; i < frames; i++) {
+            metrics.addFrame(i <= lateFrames ? REFRESH_INTERVAL * 2 : REFRESH_INTERVAL, true, false);
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.content.Context;
+import android.view.accessibility.AccessibilityManager;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowAccessibilityManager;
+
+/**
+ * Keeps one {@link AccessibilityManager} per context, like the framework does.
+ *
+ * Robolectric 3.0 creates a new one, with a service that registers broadcast receivers, on
+ * every call. Views ask for it whenever their translation changes, so every frame that moves
+ * the FAB would allocate more than the one before it, and tests that measure allocations
+ * across frames have to use this shadow.
+ */
+@Implements(AccessibilityManager.class)
+public class CachedAccessibilityManagerShadow extends ShadowAccessibilityManager {
+
+    private static Context instanceContext;
+    private static AccessibilityManager instance;
+
+    @Implementation
+    public static AccessibilityManager getInstance(Context context) throws Exception {
+        if (instance == null || instanceContext != context) {
+            instanceContext = context;
+            instance = ShadowAccessibilityManager.getInstance(context);
+        }
+        return instance;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.os.Looper;
+import android.view.View;
+import android.view.animation.LinearInterpolator;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.Scheduler;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the stagger with the usual way of scaling children in one after another: a
+ * {@link View#animate()} per child, each with a longer start delay. Both run over the same
+ * frames of a paused main looper, and each is measured on its second run, so that classes
+ * are loaded and pools are filled by the first one.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ChildStaggerTest {
+
+    private static final int CHILDREN = 16;
+    private static final long DURATION = 200;
+    private static final long DELAY = 32;
+    private static final long FRAME_MILLIS = 16;
+    private static final long NANOS_PER_MILLI = 1000000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final ChildStagger stagger = new ChildStagger(new StaggerSchedule(DURATION, DELAY, new LinearInterpolator()));
+    private final Set<Animator> startedAnimators = Collections.newSetFromMap(new IdentityHashMap<Animator, Boolean>());
+    private FrameLayout group;
+    private long frameInterval;
+    private int updates;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        frameInterval = ShadowChoreographer.getFrameInterval();
+        ShadowChoreographer.setFrameInterval(FRAME_MILLIS * NANOS_PER_MILLI);
+        group = new FrameLayout(FABRevealLayoutFixture.context());
+        for (int i = 0; i < CHILDREN; i++) {
+            group.addView(new CountingView(FABRevealLayoutFixture.context()));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        ShadowChoreographer.setFrameInterval(frameInterval);
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void staggerRunsOnNoMoreFrameCallbacksWithoutAnAnimatorPerChild() {
+        Run stagger = measureStagger();
+        Run perChild = measurePerChildAnimators();
+
+        assertEquals(CHILDREN, startedAnimators.size());
+        assertTrue("Main looper callbacks: " + stagger.mainLooperCallbacks + " staggered, " +
+                        perChild.mainLooperCallbacks + " with an animator per child",
+                stagger.mainLooperCallbacks <= perChild.mainLooperCallbacks);
+    }
+
+    /**
+     * The stagger also shows every child once it ends, which an animator per child does on
+     * its last update.
+     */
+    @Test
+    public void staggerUpdatesNoMoreChildrenThanAnAnimatorPerChild() {
+        Run stagger = measureStagger();
+        Run perChild = measurePerChildAnimators();
+
+        assertTrue("Child updates: " + stagger.childUpdates + " staggered, " + perChild.childUpdates +
+                        " with an animator per child",
+                stagger.childUpdates <= perChild.childUpdates + CHILDREN);
+    }
+
+    @Test
+    public void staggerAllocatesLessThanAnAnimatorPerChild() {
+        Run stagger = measureStagger();
+        Run perChild = measurePerChildAnimators();
+
+        assertTrue("Allocated bytes: " + stagger.allocatedBytes + " staggered, " + perChild.allocatedBytes +
+                        " with an animator per child",
+                stagger.allocatedBytes < perChild.allocatedBytes);
+    }
+
+    private Run measureStagger() {
+        runStagger();
+        return runStagger();
+    }
+
+    private Run measurePerChildAnimators() {
+        runPerChildAnimators();
+        return runPerChildAnimators();
+    }
+
+    private Run runStagger() {
+        updates = 0;
+        long before = allocatedBytes();
+        stagger.start(group);
+        int callbacks = runMainLooperTasks();
+        return new Run(callbacks, updates, allocatedBytes() - before);
+    }
+
+    private Run runPerChildAnimators() {
+        updates = 0;
+        startedAnimators.clear();
+        long before = allocatedBytes();
+        for (int i = 0; i < CHILDREN; i++) {
+            View child = group.getChildAt(i);
+            child.setScaleX(0);
+            child.setScaleY(0);
+            child.animate()
+                    .scaleX(1)
+                    .scaleY(1)
+                    .setDuration(DURATION)
+                    .setStartDelay(DELAY * i)
+                    .setInterpolator(new LinearInterpolator())
+                    .setListener(animatorCounter)
+                    .setUpdateListener(updateCounter)
+                    .start();
+        }
+        int callbacks = runMainLooperTasks();
+        return new Run(callbacks, updates, allocatedBytes() - before);
+    }
+
+    /**
+     * @return how many callbacks ran on the main looper, frame callbacks included
+     */
+    private static int runMainLooperTasks() {
+        Scheduler scheduler = Shadows.shadowOf(Looper.getMainLooper()).getScheduler();
+        int tasks = 0;
+        while (scheduler.runOneTask()) {
+            tasks++;
+        }
+        return tasks;
+    }
+
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private final Animator.AnimatorListener animatorCounter = new AnimatorListenerAdapter() {
+        @Override
+        public void onAnimationStart(Animator animation) {
+            startedAnimators.add(animation);
+        }
+    };
+
+    /**
+     * Each update of an animator started by {@link View#animate()} scales its child, on the
+     * render node rather than through {@link View#setScaleX(float)}.
+     */
+    private final ValueAnimator.AnimatorUpdateListener updateCounter = new ValueAnimator.AnimatorUpdateListener() {
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            updates++;
+        }
+    };
+
+    private static final class Run {
+
+        final int mainLooperCallbacks;
+        final int childUpdates;
+        final long allocatedBytes;
+
+        Run(int mainLooperCallbacks, int childUpdates, long allocatedBytes) {
+            this.mainLooperCallbacks = mainLooperCallbacks;
+            this.childUpdates = childUpdates;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    /**
+     * Keeps its scale in fields. Robolectric records the scale of a view in a shadow, which
+     * allocates on every call, while {@link View#animate()} sets it on the render node; with
+     * fields neither side pays for the shadow.
+     */
+    private class CountingView extends View {
+
+        private float scaleX = 1;
+        private float scaleY = 1;
+
+        CountingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void setScaleX(float scaleX) {
+            updates++;
+            this.scaleX = scaleX;
+        }
+
+        @Override
+        public float getScaleX() {
+            return scaleX;
+        }
+
+        @Override
+        public void setScaleY(float scaleY) {
+            this.scaleY = scaleY;
+        }
+
+        @Override
+        public float getScaleY() {
+            return scaleY;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CriticalSpringTest {
+
+    private static final long SETTLE_DURATION = 800;
+    private static final float FRAME = 1 / 60f;
+    private static final int MAX_FRAMES = 600;
+    private static final int WARM_UP_FRAMES = 100000;
+    private static final int MEASURED_FRAMES = 10000;
+
+    @Test
+    public void settlesFromRestAroundSettleDurationWithoutOvershoot() {
+        CriticalSpring spring = new CriticalSpring();
+        spring.setSettleDuration(SETTLE_DURATION);
+        spring.snapTo(0);
+        spring.setTarget(1);
+
+        int frames = 0;
+        boolean settled = false;
+        while (!settled && frames < MAX_FRAMES) {
+            settled = spring.advance(FRAME);
+            assertTrue(spring.getPosition() <= 1);
+            frames++;
+        }
+
+        assertTrue(settled);
+        assertEquals(1, spring.getPosition(), 0);
+        assertEquals(SETTLE_DURATION, frames * FRAME * 1000, 2 * SETTLE_DURATION / 10f);
+    }
+
+    @Test
+    public void springWithoutDurationSettlesOnTheFirstFrame() {
+        CriticalSpring spring = new CriticalSpring();
+        spring.setSettleDuration(0);
+        spring.snapTo(0);
+        spring.setTarget(1);
+
+        assertTrue(spring.advance(FRAME));
+        assertEquals(1, spring.getPosition(), 0);
+    }
+
+    @Test
+    public void retargetingKeepsVelocity() {
+        CriticalSpring spring = new CriticalSpring();
+        spring.setSettleDuration(SETTLE_DURATION);
+        spring.snapTo(0);
+        spring.setTarget(1);
+        for (int i = 0; i < 10; i++) {
+            spring.advance(FRAME);
+        }
+        float position = spring.getPosition();
+        float velocity = spring.getVelocity();
+
+        spring.setTarget(0);
+
+        assertEquals(velocity, spring.getVelocity(), 0);
+        assertFalse(spring.advance(CriticalSpring.TIMESTEP));
+        assertTrue("Keeps moving forward right after retargeting", spring.getPosition() > position);
+    }
+
+    @Test
+    public void resultDoesNotDependOnFrameRate() {
+        CriticalSpring at60 = new CriticalSpring();
+        CriticalSpring at120 = new CriticalSpring();
+        at60.setTarget(1);
+        at120.setTarget(1);
+
+        for (int i = 0; i < 30; i++) {
+            at60.advance(1 / 60f);
+            at120.advance(1 / 120f);
+            at120.advance(1 / 120f);
+        }
+
+        assertEquals(at60.getPosition(), at120.getPosition(), 0.01f);
+    }
+
+    @Test
+    public void advancingDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        CriticalSpring spring = new CriticalSpring();
+
+        float sink = run(spring, WARM_UP_FRAMES);
+
+        long calibration = threads.getThreadAllocatedBytes(threadId);
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long measurementOverhead = before - calibration;
+        sink += run(spring, MEASURED_FRAMES);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before - measurementOverhead;
+
+        assertEquals("Allocated bytes per frame (sink " + sink + ")", 0, allocated / MEASURED_FRAMES);
+    }
+
+    private float run(CriticalSpring spring, int frames) {
+        float sink = 0;
+        for (int i = 0; i < frames; i++) {
+            if (i % 20 == 0) {
+                spring.setTarget(spring.getTarget() == 1 ? 0 : 1);
+            }
+            spring.advance(FRAME);
+            sink += spring.getPosition();
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CurvedPathEvaluatorTest {
+
+    private static final int WARM_UP_ITERATIONS = 200000;
+    private static final int MEASURED_ITERATIONS = 10000;
+
+    private final Point start = new Point(300, 20);
+    private final Point end = new Point(450, 160, 200, 360, 150, 140);
+
+    @Test
+    public void reusePointIsReturnedAndUpdated() {
+        Point reuse = new Point(0, 0);
+        CurvedPathEvaluator evaluator = new CurvedPathEvaluator(reuse);
+
+        Point result = evaluator.evaluate(1, start, end);
+
+        assertSame(reuse, result);
+        assertEquals(end.x, result.x, 0.001f);
+        assertEquals(end.y, result.y, 0.001f);
+    }
+
+    @Test
+    public void reusingEvaluatorMatchesAllocatingEvaluator() {
+        CurvedPathEvaluator allocating = new CurvedPathEvaluator();
+        CurvedPathEvaluator reusing = new CurvedPathEvaluator(new Point(0, 0));
+
+        for (int i = 0; i <= 100; i++) {
+            float t = i / 100f;
+            Point expected = allocating.evaluate(t, start, end);
+            Point actual = reusing.evaluate(t, start, end);
+            assertEquals(expected.x, actual.x, 0);
+            assertEquals(expected.y, actual.y, 0);
+        }
+    }
+
+    @Test
+    public void evaluatingIntoReusePointDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        CurvedPathEvaluator evaluator = new CurvedPathEvaluator(new Point(0, 0));
+
+        float sink = evaluate(evaluator, WARM_UP_ITERATIONS);
+
+        long calibration = threads.getThreadAllocatedBytes(threadId);
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long measurementOverhead = before - calibration;
+        sink += evaluate(evaluator, MEASURED_ITERATIONS);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before - measurementOverhead;
+
+        assertEquals("Allocated bytes per evaluation (sink " + sink + ")", 0, allocated / MEASURED_ITERATIONS);
+    }
+
+    private float evaluate(CurvedPathEvaluator evaluator, int iterations) {
+        float sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += evaluator.evaluate((i % 1000) / 1000f, start, end).x;
+        }
+        return sink;
+    }
+}
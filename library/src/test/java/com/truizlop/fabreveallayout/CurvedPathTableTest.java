@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CurvedPathTableTest {
+
+    private static final int SAMPLES = 33;
+    private static final float FROM_X = 300, FROM_Y = 20, TO_X = 150, TO_Y = 140;
+
+    @Test
+    public void samplesMatchTheCurvedPathEvaluator() {
+        CurvedPathTable table = new CurvedPathTable(SAMPLES);
+        table.update(FROM_X, FROM_Y, TO_X, TO_Y);
+
+        Object[] points = new CurvedAnimator(FROM_X, FROM_Y, TO_X, TO_Y).getPoints();
+        CurvedPathEvaluator evaluator = new CurvedPathEvaluator();
+        Point sample = new Point(0, 0);
+        for (int i = 0; i < SAMPLES; i++) {
+            float t = (float) i / (SAMPLES - 1);
+            Point expected = evaluator.evaluate(t, (Point) points[0], (Point) points[1]);
+            table.sample(t, sample);
+            assertEquals(expected.x, sample.x, 0.01f);
+            assertEquals(expected.y, sample.y, 0.01f);
+        }
+    }
+
+    @Test
+    public void tableIsOnlyRebuiltWhenGeometryChanges() {
+        CurvedPathTable table = new CurvedPathTable(SAMPLES);
+
+        assertTrue(table.update(FROM_X, FROM_Y, TO_X, TO_Y));
+        assertFalse(table.update(FROM_X, FROM_Y, TO_X, TO_Y));
+        assertTrue(table.update(FROM_X, FROM_Y, TO_X + 1, TO_Y));
+    }
+
+    @Test
+    public void arcLengthParameterizedTableMovesAtUniformSpeed() {
+        CurvedPathTable table = new CurvedPathTable(SAMPLES);
+        table.setArcLengthParameterized(true);
+        table.update(FROM_X, FROM_Y, TO_X, TO_Y);
+
+        Point previous = table.sample(0, new Point(0, 0));
+        assertEquals(FROM_X, previous.x, 0.01f);
+        assertEquals(FROM_Y, previous.y, 0.01f);
+
+        Point current = new Point(0, 0);
+        float firstStep = -1;
+        for (int i = 1; i < SAMPLES; i++) {
+            table.sample((float) i / (SAMPLES - 1), current);
+            float step = (float) Math.hypot(current.x - previous.x, current.y - previous.y);
+            if (firstStep < 0) {
+                firstStep = step;
+            }
+            assertEquals(firstStep, step, firstStep * 0.1f);
+            previous.set(current.x, current.y);
+        }
+        assertEquals(TO_X, current.x, 0.01f);
+        assertEquals(TO_Y, current.y, 0.01f);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.view.View;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures what full reveal and hide cycles allocate once the layout is warmed up, frames
+ * included, on a paused main looper that runs every frame of a transition before the next
+ * one starts. The median cycle is checked, so that a cycle in which the JIT compiles does
+ * not fail the test.
+ *
+ * Under Robolectric every frame allocates on its own, for the messages of the looper and the
+ * shadows of the views, so a cycle cannot be checked against zero. The budgets are what a
+ * cycle measured with a small margin: not enough for a new animator with its listeners and
+ * value holders on every transition start, nor for an allocation on every frame.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21, shadows = CachedAccessibilityManagerShadow.class)
+public class FABRevealLayoutAnimatorTest {
+
+    private static final int WARM_UP_CYCLES = 10;
+    private static final int MEASURED_CYCLES = 21;
+    private static final long ALLOCATED_BYTES_PER_CYCLE = 408 * 1024;
+    private static final long ALLOCATED_BYTES_PER_CYCLE_START = 7 * 1024;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final long threadId = Thread.currentThread().getId();
+
+    private FABRevealLayout fabRevealLayout;
+    private View mainView;
+    private View secondaryView;
+    private final long[] cycleBytes = new long[MEASURED_CYCLES];
+    private final long[] startBytes = new long[MEASURED_CYCLES];
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        FABRevealLayoutFixture fixture = new FABRevealLayoutFixture();
+        fabRevealLayout = fixture.fabRevealLayout;
+        mainView = fixture.mainView;
+        secondaryView = fixture.secondaryView;
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void fullCyclesReuseTheTransitionAnimator() {
+        Object animator = fabRevealLayout.getTransitionAnimator();
+
+        for (int i = 0; i < WARM_UP_CYCLES; i++) {
+            runCycle(i);
+        }
+
+        assertSame(animator, fabRevealLayout.getTransitionAnimator());
+    }
+
+    @Test
+    public void fullCyclesStayWithinAllocationBudget() {
+        measureCycles();
+
+        long perCycle = median(cycleBytes);
+        assertTrue("Bytes allocated by the median reveal/hide cycle, frames included: " + perCycle,
+                perCycle <= ALLOCATED_BYTES_PER_CYCLE);
+    }
+
+    @Test
+    public void startingTransitionsStaysWithinAllocationBudget() {
+        measureCycles();
+
+        long perCycle = median(startBytes);
+        assertTrue("Bytes allocated starting the reveal and the hide of the median cycle: " + perCycle,
+                perCycle <= ALLOCATED_BYTES_PER_CYCLE_START);
+    }
+
+    private void measureCycles() {
+        for (int i = 0; i < WARM_UP_CYCLES; i++) {
+            runCycle(0);
+        }
+        for (int i = 0; i < MEASURED_CYCLES; i++) {
+            runCycle(i);
+        }
+    }
+
+    /**
+     * Reveals and hides the secondary view, running every frame, and stores what the whole
+     * cycle and the calls that started its transitions allocated at the given index.
+     */
+    private void runCycle(int index) {
+        long cycleStart = allocatedBytes();
+
+        long before = allocatedBytes();
+        fabRevealLayout.revealSecondaryView();
+        long started = allocatedBytes() - before;
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(View.VISIBLE, secondaryView.getVisibility());
+
+        before = allocatedBytes();
+        fabRevealLayout.revealMainView();
+        started += allocatedBytes() - before;
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(View.VISIBLE, mainView.getVisibility());
+
+        cycleBytes[index] = allocatedBytes() - cycleStart;
+        startBytes[index] = started;
+    }
+
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(threadId);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FABRevealLayoutBindingTest {
+
+    private static final long MID_TRANSITION_MILLIS = 100;
+
+    private FABRevealLayout fabRevealLayout;
+    private View mainView;
+    private View secondaryView;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        FABRevealLayoutFixture fixture = new FABRevealLayoutFixture();
+        fabRevealLayout = fixture.fabRevealLayout;
+        mainView = fixture.mainView;
+        secondaryView = fixture.secondaryView;
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void setRevealedSwapsViewsWithoutAnimatingOrLayout() {
+        fabRevealLayout.setRevealed(true);
+
+        assertEquals(FABRevealLayout.State.IDLE_SECONDARY, fabRevealLayout.getState());
+        assertEquals(View.VISIBLE, secondaryView.getVisibility());
+        assertEquals(View.INVISIBLE, mainView.getVisibility());
+        assertFalse(fabRevealLayout.getTransitionAnimator().isStarted());
+        assertFalse(fabRevealLayout.isLayoutRequested());
+
+        fabRevealLayout.setRevealed(false);
+
+        assertEquals(FABRevealLayout.State.IDLE_MAIN, fabRevealLayout.getState());
+        assertEquals(View.VISIBLE, mainView.getVisibility());
+        assertEquals(View.INVISIBLE, secondaryView.getVisibility());
+        assertFalse(fabRevealLayout.isLayoutRequested());
+    }
+
+    @Test
+    public void bindingTheShownViewInAWrappingParentRequestsNoLayout() {
+        FrameLayout parent = new FrameLayout(fabRevealLayout.getContext());
+        parent.addView(fabRevealLayout, new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        FABRevealLayoutFixture.layout(parent);
+
+        fabRevealLayout.setRevealed(false);
+        assertFalse(parent.isLayoutRequested());
+
+        fabRevealLayout.setRevealed(true);
+        assertTrue(parent.isLayoutRequested());
+        FABRevealLayoutFixture.layout(parent);
+
+        fabRevealLayout.setRevealed(true);
+        assertFalse(parent.isLayoutRequested());
+        assertEquals(FABRevealLayout.State.IDLE_SECONDARY, fabRevealLayout.getState());
+        assertEquals(View.VISIBLE, secondaryView.getVisibility());
+    }
+
+    @Test
+    public void setRevealedCancelsRunningTransition() {
+        startRevealing();
+
+        fabRevealLayout.setRevealed(false);
+
+        assertFalse(fabRevealLayout.getTransitionAnimator().isStarted());
+        assertEquals(FABRevealLayout.State.IDLE_MAIN, fabRevealLayout.getState());
+        assertEquals(1, mainView.getAlpha(), 0);
+    }
+
+    @Test
+    public void detachingMidTransitionLandsOnItsTarget() {
+        startRevealing();
+
+        fabRevealLayout.onDetachedFromWindow();
+
+        assertFalse(fabRevealLayout.getTransitionAnimator().isStarted());
+        assertEquals(FABRevealLayout.State.IDLE_SECONDARY, fabRevealLayout.getState());
+        assertEquals(View.VISIBLE, secondaryView.getVisibility());
+    }
+
+    @Test
+    public void revealStateArrayBindsAndSavesPositions() {
+        RevealStateArray states = new RevealStateArray();
+        states.setRevealed(3, true);
+
+        states.bind(fabRevealLayout, 3);
+        assertTrue(fabRevealLayout.isRevealed());
+
+        states.bind(fabRevealLayout, 4);
+        assertFalse(fabRevealLayout.isRevealed());
+
+        fabRevealLayout.revealSecondaryView();
+        states.save(fabRevealLayout, 4);
+        assertTrue(states.isRevealed(4));
+
+        states.setRevealed(3, false);
+        assertFalse(states.isRevealed(3));
+    }
+
+    /**
+     * Robolectric runs every frame of the transition animator within one pass of the looper,
+     * so the animator is moved to the middle of the transition by hand.
+     */
+    private void startRevealing() {
+        fabRevealLayout.revealSecondaryView();
+        fabRevealLayout.getTransitionAnimator().setCurrentPlayTime(MID_TRANSITION_MILLIS);
+        assertEquals(FABRevealLayout.State.REVEALING, fabRevealLayout.getState());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.view.View;
+import android.view.ViewOutlineProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Robolectric does not keep the clipToOutline flag of the render node, so whether the
+ * secondary view is clipped is checked through its outline provider.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FABRevealLayoutClipRevealTest {
+
+    private static final int MAX_FRAMES = 100;
+
+    private FABRevealLayout fabRevealLayout;
+    private View mainView;
+    private View secondaryView;
+    private View circularExpandingView;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        FABRevealLayoutFixture fixture = new FABRevealLayoutFixture();
+        fabRevealLayout = fixture.fabRevealLayout;
+        mainView = fixture.mainView;
+        secondaryView = fixture.secondaryView;
+        circularExpandingView = fixture.findCircularExpandingView();
+        fabRevealLayout.setRevealMode(FABRevealLayout.RevealMode.CLIP);
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void secondaryViewShowsClippedWhileTheCircleGrows() {
+        ManualFrames frames = new ManualFrames();
+        fabRevealLayout.setFrameCoordinator(frames.coordinator);
+        fabRevealLayout.revealSecondaryView();
+        runUntilVisible(frames, secondaryView);
+
+        assertEquals(FABRevealLayout.State.REVEALING, fabRevealLayout.getState());
+        assertEquals(View.INVISIBLE, circularExpandingView.getVisibility());
+        assertEquals(1, secondaryView.getAlpha(), 0);
+        assertNotSame(ViewOutlineProvider.BACKGROUND, secondaryView.getOutlineProvider());
+    }
+
+    @Test
+    public void clipIsRemovedOnceTheTransitionEnds() {
+        fabRevealLayout.revealSecondaryView();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertEquals(FABRevealLayout.State.IDLE_SECONDARY, fabRevealLayout.getState());
+        assertEquals(View.VISIBLE, secondaryView.getVisibility());
+        assertEquals(View.INVISIBLE, circularExpandingView.getVisibility());
+        assertSame(ViewOutlineProvider.BACKGROUND, secondaryView.getOutlineProvider());
+
+        fabRevealLayout.revealMainView();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertEquals(View.VISIBLE, mainView.getVisibility());
+        assertEquals(View.INVISIBLE, secondaryView.getVisibility());
+        assertSame(ViewOutlineProvider.BACKGROUND, secondaryView.getOutlineProvider());
+    }
+
+    private void runUntilVisible(ManualFrames frames, View view) {
+        for (int i = 0; i < MAX_FRAMES && view.getVisibility() != View.VISIBLE; i++) {
+            frames.doFrame();
+        }
+        assertEquals(View.VISIBLE, view.getVisibility());
+    }
+}
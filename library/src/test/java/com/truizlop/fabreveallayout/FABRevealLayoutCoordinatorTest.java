@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.view.View;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FABRevealLayoutCoordinatorTest {
+
+    private static final int LAYOUTS = 8;
+
+    private final FABRevealLayout[] layouts = new FABRevealLayout[LAYOUTS];
+    private final ManualFrames frames = new ManualFrames();
+    private RevealFrameCoordinator coordinator;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        coordinator = frames.coordinator;
+        coordinator.setMaxStartsPerFrame(2);
+        coordinator.setFrameBudget(Long.MAX_VALUE);
+        for (int i = 0; i < LAYOUTS; i++) {
+            layouts[i] = new FABRevealLayoutFixture().fabRevealLayout;
+            layouts[i].setFrameCoordinator(coordinator);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void startsAreStaggeredAcrossFrames() {
+        for (FABRevealLayout layout : layouts) {
+            layout.revealSecondaryView();
+        }
+        assertEquals(LAYOUTS, coordinator.getPendingCount());
+
+        for (int frame = 1; frame <= LAYOUTS / 2; frame++) {
+            frames.doFrame();
+            assertEquals(frame * 2, coordinator.getActiveCount());
+            assertEquals(LAYOUTS - frame * 2, coordinator.getPendingCount());
+        }
+    }
+
+    @Test
+    public void allTransitionsFinish() {
+        for (FABRevealLayout layout : layouts) {
+            layout.revealSecondaryView();
+        }
+
+        frames.runToEnd();
+
+        for (FABRevealLayout layout : layouts) {
+            assertEquals(FABRevealLayout.State.IDLE_SECONDARY, layout.getState());
+        }
+    }
+
+    @Test
+    public void reversingAPendingTransitionLeavesTheQueue() {
+        layouts[0].revealSecondaryView();
+        layouts[0].revealMainView();
+
+        assertEquals(0, coordinator.getPendingCount());
+        assertEquals(FABRevealLayout.State.IDLE_MAIN, layouts[0].getState());
+    }
+
+    @Test
+    public void finishingInstantlyRemovesTheTransition() {
+        layouts[0].revealSecondaryView();
+        frames.doFrame();
+
+        layouts[0].setRevealed(true);
+
+        assertEquals(0, coordinator.getActiveCount());
+        assertEquals(FABRevealLayout.State.IDLE_SECONDARY, layouts[0].getState());
+    }
+
+    @Test
+    public void cancellingASiblingDuringAFrameAdvancesTheOthers() {
+        coordinator.setMaxStartsPerFrame(LAYOUTS);
+        for (int i = 0; i < 3; i++) {
+            layouts[i].revealSecondaryView();
+        }
+        frames.doFrame();
+        layouts[1].addOnRevealProgressListener(new OnRevealProgressListener() {
+            @Override
+            public void onRevealProgress(FABRevealLayout fabRevealLayout, FABRevealLayout.Phase phase,
+                                         float phaseFraction, float progress) {
+                if (layouts[0].getState() == FABRevealLayout.State.REVEALING) {
+                    layouts[0].setRevealed(false);
+                }
+            }
+        });
+        final int[] updates = new int[1];
+        layouts[2].addOnRevealProgressListener(new OnRevealProgressListener() {
+            @Override
+            public void onRevealProgress(FABRevealLayout fabRevealLayout, FABRevealLayout.Phase phase,
+                                         float phaseFraction, float progress) {
+                updates[0]++;
+            }
+        });
+
+        frames.doFrame();
+
+        assertEquals(FABRevealLayout.State.IDLE_MAIN, layouts[0].getState());
+        assertEquals(2, coordinator.getActiveCount());
+        assertEquals(1, updates[0]);
+    }
+
+    @Test
+    public void siblingCancelledWhileFinishingIsNotFinished() {
+        coordinator.setMaxStartsPerFrame(LAYOUTS);
+        layouts[0].setOnRevealChangeListener(new OnRevealChangeListener() {
+            @Override
+            public void onMainViewAppeared(FABRevealLayout fabRevealLayout, View mainView) {
+            }
+
+            @Override
+            public void onSecondaryViewAppeared(FABRevealLayout fabRevealLayout, View secondaryView) {
+                layouts[1].setRevealed(false);
+            }
+        });
+        layouts[0].revealSecondaryView();
+        layouts[1].revealSecondaryView();
+
+        int frameCount = frames.runToEnd();
+
+        assertTrue(frameCount > 1);
+        assertEquals(FABRevealLayout.State.IDLE_SECONDARY, layouts[0].getState());
+        assertEquals(FABRevealLayout.State.IDLE_MAIN, layouts[1].getState());
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.content.Context;
+import android.support.design.widget.FloatingActionButton;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.RelativeLayout;
+
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * A FABRevealLayout holding a FAB and two views that fill it, laid out at a fixed size.
+ */
+final class FABRevealLayoutFixture {
+
+    static final int WIDTH = 480;
+    static final int HEIGHT = 320;
+
+    final FABRevealLayout fabRevealLayout;
+    final View fab;
+    final View mainView;
+    final View secondaryView;
+
+    FABRevealLayoutFixture() {
+        this(new FABRevealLayout(context()));
+    }
+
+    FABRevealLayoutFixture(FABRevealLayout fabRevealLayout) {
+        this(fabRevealLayout, new FloatingActionButton(fabRevealLayout.getContext()),
+                new FrameLayout(fabRevealLayout.getContext()));
+    }
+
+    FABRevealLayoutFixture(FABRevealLayout fabRevealLayout, View fab, View secondaryView) {
+        this.fabRevealLayout = fabRevealLayout;
+        this.fab = fab;
+        this.mainView = new FrameLayout(fabRevealLayout.getContext());
+        this.secondaryView = secondaryView;
+        fabRevealLayout.addView(fab);
+        fabRevealLayout.addView(mainView, matchParent());
+        fabRevealLayout.addView(secondaryView, matchParent());
+        layout(fabRevealLayout);
+    }
+
+    static Context context() {
+        return RuntimeEnvironment.application;
+    }
+
+    static RelativeLayout.LayoutParams matchParent() {
+        return new RelativeLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT);
+    }
+
+    static void layout(View view) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    void layout() {
+        layout(fabRevealLayout);
+    }
+
+    CircularExpandingView findCircularExpandingView() {
+        for (int i = 0; i < fabRevealLayout.getChildCount(); i++) {
+            if (fabRevealLayout.getChildAt(i) instanceof CircularExpandingView) {
+                return (CircularExpandingView) fabRevealLayout.getChildAt(i);
+            }
+        }
+        throw new AssertionError("FABRevealLayout has no CircularExpandingView");
+    }
+}
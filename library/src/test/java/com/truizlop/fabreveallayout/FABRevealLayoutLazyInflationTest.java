@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.support.design.widget.FloatingActionButton;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewStub;
+import android.widget.FrameLayout;
+import android.widget.RelativeLayout;
+import android.widget.TextView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FABRevealLayoutLazyInflationTest {
+
+    private static final int INFLATED_ID = 42;
+
+    private FABRevealLayout fabRevealLayout;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        fabRevealLayout = new FABRevealLayout(RuntimeEnvironment.application);
+        fabRevealLayout.addView(new FloatingActionButton(RuntimeEnvironment.application));
+        fabRevealLayout.addView(new FrameLayout(RuntimeEnvironment.application));
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void secondaryViewLayoutIsInflatedOnFirstReveal() {
+        fabRevealLayout.setSecondaryViewLayout(android.R.layout.simple_list_item_1);
+        layout();
+        assertNull(findTextView());
+
+        fabRevealLayout.revealSecondaryView();
+        TextView secondaryView = findTextView();
+        assertNotNull(secondaryView);
+        assertEquals(View.INVISIBLE, secondaryView.getVisibility());
+
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(View.VISIBLE, secondaryView.getVisibility());
+        assertEquals(FABRevealLayout.State.IDLE_SECONDARY, fabRevealLayout.getState());
+    }
+
+    @Test
+    public void viewStubPassesItsLayoutParamsAndIdToTheInflatedView() {
+        ViewStub stub = new ViewStub(RuntimeEnvironment.application, android.R.layout.simple_list_item_1);
+        stub.setInflatedId(INFLATED_ID);
+        fabRevealLayout.addView(stub, new RelativeLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 100));
+        layout();
+
+        fabRevealLayout.revealSecondaryView();
+        TextView secondaryView = findTextView();
+        assertNotNull(secondaryView);
+        assertEquals(INFLATED_ID, secondaryView.getId());
+        assertEquals(100, secondaryView.getLayoutParams().height);
+        assertNull(stub.getParent());
+    }
+
+    private void layout() {
+        FABRevealLayoutFixture.layout(fabRevealLayout);
+    }
+
+    private TextView findTextView() {
+        for (int i = 0; i < fabRevealLayout.getChildCount(); i++) {
+            if (fabRevealLayout.getChildAt(i) instanceof TextView) {
+                return (TextView) fabRevealLayout.getChildAt(i);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.support.design.widget.FloatingActionButton;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.RelativeLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FABRevealLayoutMeasureTest {
+
+    private static final int MAIN_HEIGHT = 100;
+    private static final int SECONDARY_HEIGHT = 200;
+
+    private FABRevealLayout fabRevealLayout;
+    private View mainView;
+    private View secondaryView;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        fabRevealLayout = new FABRevealLayout(FABRevealLayoutFixture.context());
+        mainView = new FrameLayout(fabRevealLayout.getContext());
+        secondaryView = new FrameLayout(fabRevealLayout.getContext());
+        fabRevealLayout.addView(new FloatingActionButton(fabRevealLayout.getContext()));
+        fabRevealLayout.addView(mainView, withHeight(MAIN_HEIGHT));
+        fabRevealLayout.addView(secondaryView, withHeight(SECONDARY_HEIGHT));
+    }
+
+    @Test
+    public void wrappedLayoutIsSizedToTheVisibleView() {
+        layoutWrappingHeight();
+        assertEquals(mainView.getBottom(), fabRevealLayout.getHeight());
+
+        fabRevealLayout.setRevealed(true);
+        assertTrue(fabRevealLayout.isLayoutRequested());
+
+        layoutWrappingHeight();
+        assertEquals(secondaryView.getBottom(), fabRevealLayout.getHeight());
+    }
+
+    @Test
+    public void exactlySizedLayoutSwapsWithoutLayout() {
+        FABRevealLayoutFixture.layout(fabRevealLayout);
+
+        fabRevealLayout.setRevealed(true);
+
+        assertFalse(fabRevealLayout.isLayoutRequested());
+        assertEquals(FABRevealLayoutFixture.HEIGHT, fabRevealLayout.getHeight());
+    }
+
+    private void layoutWrappingHeight() {
+        fabRevealLayout.measure(
+                View.MeasureSpec.makeMeasureSpec(FABRevealLayoutFixture.WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(FABRevealLayoutFixture.HEIGHT, View.MeasureSpec.AT_MOST));
+        fabRevealLayout.layout(0, 0, fabRevealLayout.getMeasuredWidth(), fabRevealLayout.getMeasuredHeight());
+    }
+
+    private static RelativeLayout.LayoutParams withHeight(int height) {
+        return new RelativeLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, height);
+    }
+}
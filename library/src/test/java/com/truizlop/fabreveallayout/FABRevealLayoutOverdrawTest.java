@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.support.design.widget.FloatingActionButton;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Counts how many full fills are drawn over the area of the secondary view once it has been
+ * revealed, which is the overdraw every frame of an idle secondary view pays for.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FABRevealLayoutOverdrawTest {
+
+    private FABRevealLayout fabRevealLayout;
+    private View secondaryView;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        FABRevealLayout layout = new FABRevealLayout(FABRevealLayoutFixture.context());
+        FABRevealLayoutFixture fixture = new FABRevealLayoutFixture(layout,
+                new FloatingActionButton(layout.getContext()), new BackgroundOpaqueFrameLayout(layout.getContext()));
+        fabRevealLayout = fixture.fabRevealLayout;
+        secondaryView = fixture.secondaryView;
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void opaqueSecondaryViewIsDrawnOverTheCircleInCircleMode() {
+        fabRevealLayout.setExpandedCircleMode(FABRevealLayout.ExpandedCircleMode.CIRCLE);
+        secondaryView.setBackgroundColor(0xFFFFFFFF);
+        reveal();
+
+        assertEquals(2, measureOverdraw());
+    }
+
+    @Test
+    public void opaqueSecondaryViewIsDrawnAloneInBackgroundMode() {
+        secondaryView.setBackgroundColor(0xFFFFFFFF);
+        reveal();
+
+        assertEquals(1, measureOverdraw());
+    }
+
+    @Test
+    public void transparentSecondaryViewIsDrawnOverASingleFillInBackgroundMode() {
+        reveal();
+
+        assertEquals(1, measureOverdraw());
+    }
+
+    @Test
+    public void hidingBringsTheMainViewBackWithoutFills() {
+        reveal();
+        fabRevealLayout.revealMainView();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertEquals(0, measureOverdraw());
+    }
+
+    private void reveal() {
+        fabRevealLayout.revealSecondaryView();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        FABRevealLayoutFixture.layout(fabRevealLayout);
+    }
+
+    /**
+     * Robolectric replaces View.draw with a stub that draws the background without its bounds
+     * and skips the children, so the children are drawn here the way View.draw would draw
+     * them, after the layout has drawn its own fill.
+     */
+    private int measureOverdraw() {
+        Rect region = new Rect(secondaryView.getLeft(), secondaryView.getTop(),
+                secondaryView.getRight(), secondaryView.getBottom());
+        OverdrawCanvas canvas = new OverdrawCanvas(Bitmap.createBitmap(FABRevealLayoutFixture.WIDTH,
+                FABRevealLayoutFixture.HEIGHT, Bitmap.Config.ARGB_8888), region);
+        fabRevealLayout.dispatchDraw(canvas);
+        for (int i = 0; i < fabRevealLayout.getChildCount(); i++) {
+            drawChild(canvas, fabRevealLayout.getChildAt(i));
+        }
+        return canvas.fills;
+    }
+
+    private static void drawChild(Canvas canvas, View child) {
+        if (child.getVisibility() != View.VISIBLE) {
+            return;
+        }
+        int saveCount = canvas.save();
+        canvas.translate(child.getLeft(), child.getTop());
+        Drawable background = child.getBackground();
+        if (background != null) {
+            Rect bounds = background.copyBounds();
+            background.setBounds(0, 0, child.getWidth(), child.getHeight());
+            background.draw(canvas);
+            background.setBounds(bounds);
+        }
+        if (child instanceof CircularExpandingView) {
+            ((CircularExpandingView) child).onDraw(canvas);
+        }
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * Robolectric does not compute the opaque flags of a view, so this view works out from its
+     * background whether it is opaque, as View.isOpaque would.
+     */
+    private static class BackgroundOpaqueFrameLayout extends FrameLayout {
+
+        BackgroundOpaqueFrameLayout(Context context) {
+            super(context);
+        }
+
+        @Override
+        public boolean isOpaque() {
+            Drawable background = getBackground();
+            return background != null && background.getOpacity() == PixelFormat.OPAQUE && getAlpha() >= 1;
+        }
+    }
+
+    /**
+     * Tracks the translation applied by the views being drawn and counts the fills that cover
+     * the whole region.
+     */
+    private static class OverdrawCanvas extends Canvas {
+
+        private static final int MAX_SAVES = 64;
+
+        private final Rect region;
+        private final float[] savedTranslationX = new float[MAX_SAVES];
+        private final float[] savedTranslationY = new float[MAX_SAVES];
+        private int saveCount = 0;
+        private float translationX = 0;
+        private float translationY = 0;
+        int fills = 0;
+
+        OverdrawCanvas(Bitmap bitmap, Rect region) {
+            super(bitmap);
+            this.region = region;
+        }
+
+        @Override
+        public int save() {
+            super.save();
+            return pushTranslation();
+        }
+
+        @Override
+        public int save(int saveFlags) {
+            super.save(saveFlags);
+            return pushTranslation();
+        }
+
+        @Override
+        public void restore() {
+            super.restore();
+            restoreTranslation(saveCount - 1);
+        }
+
+        @Override
+        public void restoreToCount(int saveCount) {
+            super.restoreToCount(saveCount);
+            restoreTranslation(saveCount);
+        }
+
+        @Override
+        public void translate(float dx, float dy) {
+            super.translate(dx, dy);
+            translationX += dx;
+            translationY += dy;
+        }
+
+        @Override
+        public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+            super.drawRect(left, top, right, bottom, paint);
+            countFill(left, top, right, bottom);
+        }
+
+        @Override
+        public void drawRect(RectF rect, Paint paint) {
+            super.drawRect(rect, paint);
+            countFill(rect.left, rect.top, rect.right, rect.bottom);
+        }
+
+        @Override
+        public void drawCircle(float cx, float cy, float radius, Paint paint) {
+            super.drawCircle(cx, cy, radius, paint);
+            float dx = Math.max(Math.abs(region.left - translationX - cx), Math.abs(region.right - translationX - cx));
+            float dy = Math.max(Math.abs(region.top - translationY - cy), Math.abs(region.bottom - translationY - cy));
+            if (dx * dx + dy * dy <= radius * radius) {
+                fills++;
+            }
+        }
+
+        @Override
+        public void drawPaint(Paint paint) {
+            super.drawPaint(paint);
+            fills++;
+        }
+
+        private int pushTranslation() {
+            savedTranslationX[saveCount] = translationX;
+            savedTranslationY[saveCount] = translationY;
+            return saveCount++;
+        }
+
+        private void restoreTranslation(int count) {
+            saveCount = count;
+            translationX = savedTranslationX[count];
+            translationY = savedTranslationY[count];
+        }
+
+        private void countFill(float left, float top, float right, float bottom) {
+            if (left + translationX <= region.left && top + translationY <= region.top &&
+                    right + translationX >= region.right && bottom + translationY >= region.bottom) {
+                fills++;
+            }
+        }
+    }
+}
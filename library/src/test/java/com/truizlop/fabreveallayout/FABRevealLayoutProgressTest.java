@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FABRevealLayoutProgressTest {
+
+    private final ManualFrames frames = new ManualFrames();
+    private FABRevealLayout fabRevealLayout;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        fabRevealLayout = new FABRevealLayoutFixture().fabRevealLayout;
+        fabRevealLayout.setFrameCoordinator(frames.coordinator);
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void everyListenerIsToldEveryFrame() {
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+        fabRevealLayout.addOnRevealProgressListener(first);
+        fabRevealLayout.addOnRevealProgressListener(second);
+
+        fabRevealLayout.revealSecondaryView();
+        int frameCount = frames.runToEnd();
+
+        assertEquals(frameCount, first.frames);
+        assertEquals(frameCount, second.frames);
+        assertTrue(first.sawMove);
+        assertEquals(FABRevealLayout.Phase.CIRCLE, first.phase);
+        assertEquals(1, first.phaseFraction, 0);
+        assertEquals(1, first.progress, 0);
+    }
+
+    @Test
+    public void removedListenerIsNotToldAnymore() {
+        RecordingListener listener = new RecordingListener();
+        fabRevealLayout.addOnRevealProgressListener(listener);
+        fabRevealLayout.removeOnRevealProgressListener(listener);
+
+        fabRevealLayout.revealSecondaryView();
+        frames.runToEnd();
+
+        assertEquals(0, listener.frames);
+    }
+
+    private static class RecordingListener implements OnRevealProgressListener {
+        int frames = 0;
+        boolean sawMove = false;
+        FABRevealLayout.Phase phase = null;
+        float phaseFraction = 0;
+        float progress = 0;
+
+        @Override
+        public void onRevealProgress(FABRevealLayout fabRevealLayout, FABRevealLayout.Phase phase, float phaseFraction, float progress) {
+            frames++;
+            sawMove |= phase == FABRevealLayout.Phase.MOVE;
+            this.phase = phase;
+            this.phaseFraction = phaseFraction;
+            this.progress = progress;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.animation.ValueAnimator;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.provider.Settings;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FABRevealLayoutSavedStateTest {
+
+    private static final int HALF_TRANSITION_FRAMES = 24;
+    private static final float FRACTION_TOLERANCE = 0.01f;
+    private static final float SLOW_ANIMATOR_DURATION_SCALE = 2;
+
+    private final ManualFrames frames = new ManualFrames();
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @After
+    public void tearDown() {
+        setAnimatorDurationScale(1);
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void revealedStateIsRestoredInstantly() {
+        FABRevealLayout saved = createLayout();
+        saved.setRevealed(true);
+
+        FABRevealLayout restored = createLayout();
+        restored.onRestoreInstanceState(saved.onSaveInstanceState());
+
+        assertEquals(FABRevealLayout.State.IDLE_SECONDARY, restored.getState());
+    }
+
+    @Test
+    public void interruptedTransitionLandsOnItsTargetByDefault() {
+        Parcelable state = saveHalfwayThroughReveal();
+
+        FABRevealLayout restored = createLayout();
+        restored.onRestoreInstanceState(state);
+
+        assertEquals(FABRevealLayout.State.IDLE_SECONDARY, restored.getState());
+    }
+
+    @Test
+    public void interruptedTransitionResumesFromItsProgress() {
+        Parcelable state = saveHalfwayThroughReveal();
+
+        FABRevealLayout restored = createLayout();
+        restored.setResumeTransitionOnRestore(true);
+        restored.onRestoreInstanceState(state);
+
+        assertEquals(FABRevealLayout.State.REVEALING, restored.getState());
+        int frameCount = frames.runToEnd();
+        assertTrue("Resumed transition took " + frameCount + " frames", frameCount <= HALF_TRANSITION_FRAMES + 4);
+        assertEquals(FABRevealLayout.State.IDLE_SECONDARY, restored.getState());
+    }
+
+    @Test
+    public void interruptedTransitionResumesFromItsProgressWithoutACoordinator() {
+        FABRevealLayout.SavedState state = (FABRevealLayout.SavedState) saveHalfwayThroughReveal();
+
+        FABRevealLayout restored = new FABRevealLayoutFixture().fabRevealLayout;
+        restored.setResumeTransitionOnRestore(true);
+        restored.onRestoreInstanceState(state);
+
+        assertEquals(FABRevealLayout.State.REVEALING, restored.getState());
+        assertEquals(state.transitionProgress, restored.getTransitionAnimator().getAnimatedFraction(),
+                FRACTION_TOLERANCE);
+    }
+
+    @Test
+    public void interruptedTransitionResumesFromItsProgressUnderAnAnimatorDurationScale() {
+        FABRevealLayout.SavedState state = (FABRevealLayout.SavedState) saveHalfwayThroughReveal();
+        setAnimatorDurationScale(SLOW_ANIMATOR_DURATION_SCALE);
+
+        FABRevealLayout restored = new FABRevealLayoutFixture().fabRevealLayout;
+        restored.setResumeTransitionOnRestore(true);
+        restored.onRestoreInstanceState(state);
+
+        assertEquals(state.transitionProgress, restored.getTransitionAnimator().getAnimatedFraction(),
+                FRACTION_TOLERANCE);
+    }
+
+    @Test
+    public void interruptedHideResumesFromItsProgressWithoutACoordinator() {
+        FABRevealLayout saved = createLayout();
+        saved.setRevealed(true);
+        saved.revealMainView();
+        frames.doFrames(HALF_TRANSITION_FRAMES / 2);
+        FABRevealLayout.SavedState state = (FABRevealLayout.SavedState) saved.onSaveInstanceState();
+
+        FABRevealLayout restored = new FABRevealLayoutFixture().fabRevealLayout;
+        restored.setResumeTransitionOnRestore(true);
+        restored.onRestoreInstanceState(state);
+
+        assertEquals(FABRevealLayout.State.HIDING, restored.getState());
+        assertEquals(state.transitionProgress, restored.getTransitionAnimator().getAnimatedFraction(),
+                FRACTION_TOLERANCE);
+    }
+
+    @Test
+    public void interruptedTransitionSurvivesAParcel() {
+        FABRevealLayout.SavedState state = (FABRevealLayout.SavedState) saveHalfwayThroughReveal();
+
+        FABRevealLayout.SavedState unparceled = writeAndRead(state);
+
+        assertEquals(state.revealed, unparceled.revealed);
+        assertEquals(state.transitionProgress, unparceled.transitionProgress, 0);
+
+        FABRevealLayout restored = createLayout();
+        restored.setResumeTransitionOnRestore(true);
+        restored.onRestoreInstanceState(unparceled);
+
+        assertEquals(FABRevealLayout.State.REVEALING, restored.getState());
+        frames.runToEnd();
+        assertEquals(FABRevealLayout.State.IDLE_SECONDARY, restored.getState());
+    }
+
+    /**
+     * The system sets the scale both in the settings, where the layout reads it, and on the
+     * animators, which is hidden API.
+     */
+    private static void setAnimatorDurationScale(float scale) {
+        Settings.Global.putFloat(RuntimeEnvironment.application.getContentResolver(),
+                Settings.Global.ANIMATOR_DURATION_SCALE, scale);
+        try {
+            ValueAnimator.class.getMethod("setDurationScale", float.class).invoke(null, scale);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static FABRevealLayout.SavedState writeAndRead(FABRevealLayout.SavedState state) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            state.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            return FABRevealLayout.SavedState.CREATOR.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private Parcelable saveHalfwayThroughReveal() {
+        FABRevealLayout saved = createLayout();
+        saved.revealSecondaryView();
+        frames.doFrames(HALF_TRANSITION_FRAMES);
+        Parcelable state = saved.onSaveInstanceState();
+        saved.setRevealed(false);
+        return state;
+    }
+
+    private FABRevealLayout createLayout() {
+        FABRevealLayout layout = new FABRevealLayoutFixture().fabRevealLayout;
+        layout.setFrameCoordinator(frames.coordinator);
+        return layout;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.view.View;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FABRevealLayoutSnapshotTest {
+
+    private final ManualFrames frames = new ManualFrames();
+    private FABRevealLayout fabRevealLayout;
+    private View mainView;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        FABRevealLayoutFixture fixture = new FABRevealLayoutFixture();
+        fabRevealLayout = fixture.fabRevealLayout;
+        mainView = fixture.mainView;
+        fabRevealLayout.setFrameCoordinator(frames.coordinator);
+        fabRevealLayout.setSnapshotFading(true);
+    }
+
+    @After
+    public void tearDown() {
+        SnapshotPool.getInstance().clear();
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void liveViewIsNotFadedWhileTheSnapshotIs() {
+        fabRevealLayout.revealSecondaryView();
+
+        for (int frame = 0; frame < 10; frame++) {
+            frames.doFrame();
+            assertEquals(1, mainView.getAlpha(), 0);
+        }
+    }
+
+    @Test
+    public void snapshotGoesBackToThePoolWhenTheTransitionEnds() {
+        fabRevealLayout.revealSecondaryView();
+        assertTrue(SnapshotPool.getInstance().getAllocatedBytes() > 0);
+
+        frames.runToEnd();
+
+        SnapshotPool.getInstance().clear();
+        assertEquals(0, SnapshotPool.getInstance().getAllocatedBytes());
+    }
+}
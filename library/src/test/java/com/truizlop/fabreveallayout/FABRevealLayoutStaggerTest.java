@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.os.Looper;
+import android.support.design.widget.FloatingActionButton;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.Scheduler;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FABRevealLayoutStaggerTest {
+
+    private static final int CHILDREN = 4;
+    private static final long FRAME_MILLIS = 16;
+    private static final int MAX_FRAMES = 200;
+    private static final long STAGGER_DELAY = 3 * FRAME_MILLIS;
+    private static final long NANOS_PER_MILLI = 1000000;
+
+    private FABRevealLayout fabRevealLayout;
+    private FrameLayout secondaryView;
+    private long frameInterval;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        frameInterval = ShadowChoreographer.getFrameInterval();
+        ShadowChoreographer.setFrameInterval(FRAME_MILLIS * NANOS_PER_MILLI);
+        fabRevealLayout = new FABRevealLayout(FABRevealLayoutFixture.context());
+        secondaryView = new FrameLayout(FABRevealLayoutFixture.context());
+        for (int i = 0; i < CHILDREN; i++) {
+            secondaryView.addView(new View(FABRevealLayoutFixture.context()));
+        }
+        new FABRevealLayoutFixture(fabRevealLayout, new FloatingActionButton(
+                FABRevealLayoutFixture.context()), secondaryView);
+        fabRevealLayout.setStaggerDuration(300);
+        fabRevealLayout.setStaggerDelay(STAGGER_DELAY);
+    }
+
+    @After
+    public void tearDown() {
+        ShadowChoreographer.setFrameInterval(frameInterval);
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void childrenAreHiddenWhileTheViewIsRevealed() {
+        fabRevealLayout.revealSecondaryView();
+
+        assertChildrenScale(0);
+    }
+
+    @Test
+    public void childrenAreShownWhenTheStateIsSetInstantly() {
+        fabRevealLayout.revealSecondaryView();
+
+        fabRevealLayout.setRevealed(true);
+
+        assertChildrenScale(1);
+    }
+
+    @Test
+    public void childrenAreLeftAloneWithoutStagger() {
+        fabRevealLayout.setStaggerDuration(0);
+
+        fabRevealLayout.revealSecondaryView();
+
+        assertChildrenScale(1);
+    }
+
+    @Test
+    public void detachingFinishesARunningStagger() {
+        fabRevealLayout.revealSecondaryView();
+        for (int frame = 0; fabRevealLayout.getState() != FABRevealLayout.State.IDLE_SECONDARY; frame++) {
+            assertTrue("Reveal did not finish", frame < MAX_FRAMES);
+            ShadowLooper.idleMainLooper(FRAME_MILLIS);
+        }
+        ShadowLooper.idleMainLooper(FRAME_MILLIS);
+
+        fabRevealLayout.onDetachedFromWindow();
+
+        assertChildrenScale(1);
+    }
+
+    /**
+     * Runs the main looper one callback at a time, and with it the frames of the stagger, so
+     * the frame each child starts scaling in can be told apart.
+     */
+    @Test
+    public void childrenEnterInOrderOneDelayApart() {
+        Scheduler scheduler = Shadows.shadowOf(Looper.getMainLooper()).getScheduler();
+        int[] firstFrameShown = new int[CHILDREN];
+        Arrays.fill(firstFrameShown, -1);
+        fabRevealLayout.revealSecondaryView();
+        for (int frame = 0; secondaryView.getChildAt(CHILDREN - 1).getScaleX() < 1; frame++) {
+            assertTrue("Stagger did not finish", frame < MAX_FRAMES);
+            scheduler.runOneTask();
+            for (int i = 0; i < CHILDREN; i++) {
+                if (firstFrameShown[i] < 0 && secondaryView.getChildAt(i).getScaleX() > 0) {
+                    firstFrameShown[i] = frame;
+                }
+            }
+        }
+
+        for (int i = 1; i < CHILDREN; i++) {
+            assertEquals("Frames between child " + (i - 1) + " and child " + i,
+                    STAGGER_DELAY / FRAME_MILLIS, firstFrameShown[i] - firstFrameShown[i - 1]);
+        }
+    }
+
+    private void assertChildrenScale(float scale) {
+        for (int i = 0; i < CHILDREN; i++) {
+            assertEquals(scale, secondaryView.getChildAt(i).getScaleX(), 0);
+            assertEquals(scale, secondaryView.getChildAt(i).getScaleY(), 0);
+        }
+    }
+}
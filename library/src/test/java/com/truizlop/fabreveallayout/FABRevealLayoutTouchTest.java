@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.support.design.widget.FloatingActionButton;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewStub;
+import android.widget.TextView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FABRevealLayoutTouchTest {
+
+    private FABRevealLayout fabRevealLayout;
+    private View fab;
+    private long downTime;
+    private long inputLatency;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        FABRevealLayoutFixture fixture = new FABRevealLayoutFixture();
+        fabRevealLayout = fixture.fabRevealLayout;
+        fab = fixture.fab;
+        fabRevealLayout.setSnapshotFading(true);
+        recordInputLatency();
+    }
+
+    @After
+    public void tearDown() {
+        SnapshotPool.getInstance().clear();
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void touchDownOnlyPrewarmsByDefault() {
+        touchFab(MotionEvent.ACTION_DOWN);
+
+        assertEquals(FABRevealLayout.State.IDLE_MAIN, fabRevealLayout.getState());
+        assertEquals(0, SnapshotPool.getInstance().getAllocatedBytes());
+    }
+
+    @Test
+    public void touchDownStartsTheRevealWhenEnabled() {
+        fabRevealLayout.setRevealOnTouchDown(true);
+
+        touchFab(MotionEvent.ACTION_DOWN);
+        assertEquals(FABRevealLayout.State.REVEALING, fabRevealLayout.getState());
+
+        touchFab(MotionEvent.ACTION_UP);
+        fab.performClick();
+        assertEquals(FABRevealLayout.State.REVEALING, fabRevealLayout.getState());
+    }
+
+    @Test
+    public void fadingSnapshotIsTakenWhenTheRevealStarts() {
+        touchFab(MotionEvent.ACTION_DOWN);
+        touchFab(MotionEvent.ACTION_UP);
+        fab.performClick();
+
+        assertEquals(FABRevealLayout.State.REVEALING, fabRevealLayout.getState());
+        assertTrue(SnapshotPool.getInstance().getAllocatedBytes() > 0);
+    }
+
+    @Test
+    public void touchDownDoesNotInflateALazySecondaryView() {
+        Context context = fabRevealLayout.getContext();
+        FABRevealLayoutFixture lazyFixture = new FABRevealLayoutFixture(new FABRevealLayout(context),
+                new FloatingActionButton(context), new ViewStub(context, android.R.layout.simple_list_item_1));
+        fabRevealLayout = lazyFixture.fabRevealLayout;
+        fab = lazyFixture.fab;
+        recordInputLatency();
+
+        touchFab(MotionEvent.ACTION_DOWN);
+        assertTrue(fabRevealLayout.getChildAt(2) instanceof ViewStub);
+
+        touchFab(MotionEvent.ACTION_UP);
+        fab.performClick();
+        assertTrue(fabRevealLayout.getChildAt(2) instanceof TextView);
+    }
+
+    @Test
+    public void touchDownBeforeAClickIsCountedInTheInputLatency() {
+        touchFab(MotionEvent.ACTION_DOWN);
+        touchFab(MotionEvent.ACTION_UP);
+        fab.performClick();
+
+        assertNotEquals(-1, runToEndForInputLatency());
+    }
+
+    @Test
+    public void touchOutsideTheFabDoesNotPrewarm() {
+        touch(MotionEvent.ACTION_DOWN, 0, FABRevealLayoutFixture.HEIGHT - 1, 0);
+        fabRevealLayout.revealSecondaryView();
+
+        assertEquals(-1, runToEndForInputLatency());
+    }
+
+    @Test
+    public void cancelledTouchReleasesThePrewarm() {
+        touchFab(MotionEvent.ACTION_DOWN);
+        touchFab(MotionEvent.ACTION_CANCEL);
+        fabRevealLayout.revealSecondaryView();
+
+        assertEquals(-1, runToEndForInputLatency());
+    }
+
+    @Test
+    public void touchLiftedOutsideTheFabReleasesThePrewarm() {
+        touchFab(MotionEvent.ACTION_DOWN);
+        touch(MotionEvent.ACTION_UP, 0, FABRevealLayoutFixture.HEIGHT - 1, 0);
+        fabRevealLayout.revealSecondaryView();
+
+        assertEquals(-1, runToEndForInputLatency());
+    }
+
+    @Test
+    public void longPressReleasesThePrewarm() {
+        fab.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View v) {
+                return true;
+            }
+        });
+
+        touchFab(MotionEvent.ACTION_DOWN);
+        touch(MotionEvent.ACTION_UP, fabCenterX(), fabCenterY(), ViewConfiguration.getLongPressTimeout());
+        fabRevealLayout.revealSecondaryView();
+
+        assertEquals(-1, runToEndForInputLatency());
+    }
+
+    private void recordInputLatency() {
+        inputLatency = Long.MIN_VALUE;
+        fabRevealLayout.setOnRevealMetricsListener(new OnRevealMetricsListener() {
+            @Override
+            public void onRevealMetrics(FABRevealLayout fabRevealLayout, RevealMetrics metrics) {
+                inputLatency = metrics.getInputLatency();
+            }
+        });
+    }
+
+    /**
+     * @return the input latency reported for the transition that is running, once it ends
+     */
+    private long runToEndForInputLatency() {
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(FABRevealLayout.State.IDLE_SECONDARY, fabRevealLayout.getState());
+        return inputLatency;
+    }
+
+    private void touchFab(int action) {
+        touch(action, fabCenterX(), fabCenterY(), 0);
+    }
+
+    private float fabCenterX() {
+        return fab.getLeft() + fab.getWidth() / 2f;
+    }
+
+    private float fabCenterY() {
+        return fab.getTop() + fab.getHeight() / 2f;
+    }
+
+    /**
+     * Dispatches the event through the layout, in its coordinates, the way the window does.
+     */
+    private void touch(int action, float x, float y, long heldMillis) {
+        if (action == MotionEvent.ACTION_DOWN) {
+            downTime = SystemClock.uptimeMillis();
+        }
+        MotionEvent event = MotionEvent.obtain(downTime, downTime + heldMillis, action, x, y, 0);
+        fabRevealLayout.dispatchTouchEvent(event);
+        event.recycle();
+    }
+}
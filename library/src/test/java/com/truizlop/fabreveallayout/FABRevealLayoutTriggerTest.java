@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.content.res.ColorStateList;
+import android.support.design.widget.FloatingActionButton;
+import android.widget.FrameLayout;
+import android.widget.ImageButton;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FABRevealLayoutTriggerTest {
+
+    private static final int TRIGGER_ID = 42;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @After
+    public void tearDown() {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void floatingActionButtonIsTheDefaultTrigger() {
+        DefaultRevealTrigger trigger = new DefaultRevealTrigger();
+
+        assertTrue(trigger.isTrigger(new FloatingActionButton(RuntimeEnvironment.application)));
+        assertFalse(trigger.isTrigger(new ImageButton(RuntimeEnvironment.application)));
+    }
+
+    @Test
+    public void anyViewCanBeTheTriggerById() {
+        ImageButton button = new ImageButton(RuntimeEnvironment.application);
+        button.setId(TRIGGER_ID);
+        button.setBackgroundColor(0xFF336699);
+        FABRevealLayout fabRevealLayout = new FABRevealLayout(RuntimeEnvironment.application);
+        fabRevealLayout.setTrigger(new DefaultRevealTrigger(TRIGGER_ID));
+        new FABRevealLayoutFixture(fabRevealLayout, button, new FrameLayout(RuntimeEnvironment.application));
+
+        button.performClick();
+
+        assertEquals(FABRevealLayout.State.REVEALING, fabRevealLayout.getState());
+        assertEquals(0xFF336699, new DefaultRevealTrigger(TRIGGER_ID).getColor(button));
+    }
+
+    @Test
+    @Config(sdk = 19)
+    public void floatingActionButtonTintIsReadBeforeLollipop() {
+        FloatingActionButton fab = new FloatingActionButton(RuntimeEnvironment.application);
+        fab.setBackgroundTintList(ColorStateList.valueOf(0xFF123456));
+
+        assertEquals(0xFF123456, new DefaultRevealTrigger().getColor(fab));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void triggerCannotChangeOnceAdded() {
+        FABRevealLayout fabRevealLayout = new FABRevealLayout(RuntimeEnvironment.application);
+        fabRevealLayout.addView(new FloatingActionButton(RuntimeEnvironment.application));
+
+        fabRevealLayout.setTrigger(new DefaultRevealTrigger(TRIGGER_ID));
+    }
+
+    @Test
+    public void fastOutSlowInMatchesItsEndPoints() {
+        CubicBezierInterpolator interpolator = CubicBezierInterpolator.fastOutSlowIn();
+
+        assertEquals(0, interpolator.getInterpolation(0), 0);
+        assertEquals(1, interpolator.getInterpolation(1), 0);
+        assertTrue(interpolator.getInterpolation(0.5f) > 0.5f);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.view.Choreographer;
+
+/**
+ * A RevealFrameCoordinator whose frames are run by the test, 60 per second.
+ */
+final class ManualFrames {
+
+    static final long FRAME_NANOS = 16666667;
+
+    final RevealFrameCoordinator coordinator = new RevealFrameCoordinator();
+    private long frameTime = FRAME_NANOS;
+
+    /**
+     * The coordinator posts itself to the Choreographer for the next frame, and that callback
+     * is dropped so it does not pile up on a paused looper or run a frame of its own.
+     */
+    void doFrame() {
+        Choreographer.getInstance().removeFrameCallback(coordinator);
+        coordinator.doFrame(frameTime);
+        frameTime += FRAME_NANOS;
+    }
+
+    void doFrames(int frames) {
+        for (int i = 0; i < frames; i++) {
+            doFrame();
+        }
+    }
+
+    boolean isRunning() {
+        return coordinator.getActiveCount() + coordinator.getPendingCount() > 0;
+    }
+
+    /**
+     * @return the number of frames it took
+     */
+    int runToEnd() {
+        int frames = 0;
+        while (isRunning()) {
+            if (frames == 1000) {
+                throw new AssertionError("Transitions did not finish");
+            }
+            doFrame();
+            frames++;
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RevealMetricsTest {
+
+    private static final long REFRESH_INTERVAL = 16666667;
+
+    @Test
+    public void framesLongerThanOneAndAHalfRefreshIntervalsAreLate() {
+        RevealMetrics metrics = new RevealMetrics();
+        metrics.reset(REFRESH_INTERVAL);
+
+        metrics.addFrame(0, true, false);
+        metrics.addFrame(REFRESH_INTERVAL, true, false);
+        metrics.addFrame(REFRESH_INTERVAL * 3, true, true);
+        metrics.addFrame(REFRESH_INTERVAL, false, true);
+
+        assertEquals(4, metrics.getFrameCount());
+        assertEquals(3, metrics.getFrameIntervalCount());
+        assertEquals(REFRESH_INTERVAL * 3, metrics.getFrameInterval(1));
+        assertEquals(1, metrics.getLateFrames());
+        assertEquals(2, metrics.getDroppedFrames());
+    }
+
+    @Test
+    public void frameIntervalsAreAttributedToTheActivePhases() {
+        RevealMetrics metrics = new RevealMetrics();
+        metrics.reset(REFRESH_INTERVAL);
+
+        metrics.addFrame(0, true, false);
+        metrics.addFrame(REFRESH_INTERVAL, true, false);
+        metrics.addFrame(REFRESH_INTERVAL, true, true);
+        metrics.addFrame(REFRESH_INTERVAL, false, true);
+
+        assertEquals(REFRESH_INTERVAL * 2, metrics.getFabMoveTime());
+        assertEquals(REFRESH_INTERVAL * 2, metrics.getCircleTime());
+    }
+
+    @Test
+    public void inputLatencyIsUnknownUntilSet() {
+        RevealMetrics metrics = new RevealMetrics();
+        metrics.reset(REFRESH_INTERVAL);
+        assertEquals(-1, metrics.getInputLatency());
+
+        metrics.setInputLatency(REFRESH_INTERVAL);
+        assertEquals(REFRESH_INTERVAL, metrics.getInputLatency());
+
+        metrics.reset(REFRESH_INTERVAL);
+        assertEquals(-1, metrics.getInputLatency());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.animation.TimeInterpolator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RevealTimelineTest {
+
+    private static final TimeInterpolator LINEAR = new TimeInterpolator() {
+        @Override
+        public float getInterpolation(float input) {
+            return input;
+        }
+    };
+    private static final TimeInterpolator EASE_IN = new TimeInterpolator() {
+        @Override
+        public float getInterpolation(float input) {
+            return input * input;
+        }
+    };
+
+    @Test
+    public void phasesRunOneAfterTheOtherWithoutOverlap() {
+        RevealTimeline timeline = new RevealTimeline(500, LINEAR, 300, LINEAR);
+
+        assertEquals(800, timeline.getTotalDuration());
+        assertEquals(1, timeline.getMoveFraction(500f / 800), 0.001f);
+        assertEquals(0, timeline.getCircleFraction(500f / 800), 0.001f);
+        assertEquals(0.5f, timeline.getCircleFraction(650f / 800), 0.001f);
+    }
+
+    @Test
+    public void overlapShortensTheTransitionAndStartsTheCircleEarlier() {
+        RevealTimeline timeline = new RevealTimeline(500, LINEAR, 300, LINEAR);
+        timeline.setPhaseOverlap(0.5f);
+
+        assertEquals(650, timeline.getTotalDuration());
+        assertEquals(350f / 650, timeline.getCircleStart(), 0.001f);
+        assertEquals(0.5f, timeline.getCircleFraction(500f / 650), 0.001f);
+        assertEquals(1, timeline.getMoveFraction(500f / 650), 0.001f);
+    }
+
+    @Test
+    public void circlePhaseWithoutDurationJumpsAtTheEnd() {
+        RevealTimeline timeline = new RevealTimeline(500, LINEAR, 300, LINEAR);
+        timeline.setDurations(250, 0);
+
+        assertEquals(250, timeline.getTotalDuration());
+        assertEquals(0, timeline.getCircleLinearFraction(0.99f), 0);
+        assertEquals(1, timeline.getCircleLinearFraction(1), 0);
+        assertEquals(1, timeline.getMoveLinearFraction(1), 0);
+    }
+
+    @Test
+    public void movePhaseWithoutDurationJumpsAtTheStart() {
+        RevealTimeline timeline = new RevealTimeline(0, LINEAR, 300, LINEAR);
+
+        assertEquals(300, timeline.getTotalDuration());
+        assertEquals(0, timeline.getMoveFraction(0), 0);
+        assertEquals(1, timeline.getMoveFraction(0.5f), 0);
+        assertEquals(0.5f, timeline.getCircleFraction(0.5f), 0.001f);
+    }
+
+    @Test
+    public void transitionWithoutDurationJumpsToItsEnds() {
+        RevealTimeline timeline = new RevealTimeline(0, LINEAR, 0, LINEAR);
+        timeline.setPhaseOverlap(0.5f);
+
+        assertEquals(0, timeline.getTotalDuration());
+        assertEquals(0, timeline.getMoveFraction(0), 0);
+        assertEquals(1, timeline.getMoveFraction(0.5f), 0);
+        assertEquals(0, timeline.getCircleFraction(0.5f), 0);
+        assertEquals(1, timeline.getCircleFraction(1), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeDurationsAreRejected() {
+        RevealTimeline timeline = new RevealTimeline(500, LINEAR, 300, LINEAR);
+        timeline.setDurations(-1, 300);
+    }
+
+    @Test
+    public void phaseInterpolatorContinuesFromTheCurrentPosition() {
+        PhaseInterpolator interpolator = new PhaseInterpolator();
+
+        interpolator.set(EASE_IN, 0.5f, false);
+        assertEquals(0, interpolator.getInterpolation(0), 0.001f);
+        assertEquals(1, interpolator.getInterpolation(1), 0.001f);
+        assertEquals((0.5625f - 0.25f) / 0.75f, interpolator.getInterpolation(0.5f), 0.001f);
+
+        interpolator.set(EASE_IN, 0.5f, true);
+        assertEquals(0, interpolator.getInterpolation(0), 0.001f);
+        assertEquals(1, interpolator.getInterpolation(1), 0.001f);
+        assertEquals((0.25f - 0.0625f) / 0.25f, interpolator.getInterpolation(0.5f), 0.001f);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SnapshotPoolTest {
+
+    private static final int WIDTH = 100;
+    private static final int HEIGHT = 50;
+    private static final long BITMAP_BYTES = WIDTH * HEIGHT * 4;
+
+    private final SnapshotPool pool = new SnapshotPool(2 * BITMAP_BYTES);
+
+    @Test
+    public void releasedBitmapIsReusedForTheSameSize() {
+        Bitmap bitmap = pool.acquire(WIDTH, HEIGHT);
+        pool.release(bitmap);
+
+        assertSame(bitmap, pool.acquire(WIDTH, HEIGHT));
+        assertEquals(BITMAP_BYTES, pool.getAllocatedBytes());
+    }
+
+    @Test
+    public void bitmapsStayWithinTheBudget() {
+        assertNotNull(pool.acquire(WIDTH, HEIGHT));
+        assertNotNull(pool.acquire(WIDTH, HEIGHT));
+
+        assertNull(pool.acquire(WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void unusedBitmapsAreFreedForOtherSizes() {
+        pool.release(pool.acquire(WIDTH, HEIGHT));
+        pool.release(pool.acquire(WIDTH, HEIGHT));
+
+        assertNotNull(pool.acquire(2 * WIDTH, HEIGHT));
+        assertEquals(2 * BITMAP_BYTES, pool.getAllocatedBytes());
+    }
+
+    @Test
+    public void unusedBitmapsAreFreedWhenMemoryRunsLow() {
+        Bitmap inUse = pool.acquire(WIDTH, HEIGHT);
+        pool.release(pool.acquire(WIDTH, HEIGHT));
+
+        pool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+
+        assertEquals(BITMAP_BYTES, pool.getAllocatedBytes());
+        assertNotNull(inUse);
+    }
+}
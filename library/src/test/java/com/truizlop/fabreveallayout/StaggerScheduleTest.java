@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2015 Tomás Ruiz-López.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.truizlop.fabreveallayout;
+
+import android.animation.TimeInterpolator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class StaggerScheduleTest {
+
+    private static final TimeInterpolator LINEAR = new TimeInterpolator() {
+        @Override
+        public float getInterpolation(float input) {
+            return input;
+        }
+    };
+
+    private final StaggerSchedule schedule = new StaggerSchedule(200, 50, LINEAR);
+
+    @Test
+    public void eachItemStartsADelayAfterThePreviousOne() {
+        assertEquals(0.5f, schedule.getFraction(0, 100), 0.001f);
+        assertEquals(0.25f, schedule.getFraction(1, 100), 0.001f);
+        assertEquals(0, schedule.getFraction(2, 100), 0);
+    }
+
+    @Test
+    public void itemsStayAtTheEndsOfTheirAnimation() {
+        assertEquals(0, schedule.getFraction(3, 0), 0);
+        assertEquals(1, schedule.getFraction(0, 1000), 0);
+    }
+
+    @Test
+    public void totalDurationCoversTheLastItem() {
+        assertEquals(0, schedule.getTotalDuration(0));
+        assertEquals(200, schedule.getTotalDuration(1));
+        assertEquals(350, schedule.getTotalDuration(4));
+    }
+}